@@ -0,0 +1,90 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.RealShopApiApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application, without a web server unless asked for one, against a private in-memory H2 database,
+ * migrated by Flyway, and seeds it with generated rows. Product caches are sized to zero so benchmarks hit the database.
+ */
+final class BenchmarkApplication {
+
+    static final String[] CATEGORIES = {"electronics", "jewelery", "men's clothing", "women's clothing", "books"};
+
+    private static final int SEED_BATCH = 10_000;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return start(WebApplicationType.NONE, extraProperties);
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraProperties) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        Stream.concat(Stream.of(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false",
+                "spring.h2.console.enabled=false",
+                "realshop.cache.products.maximum-size=0",
+                "realshop.cache.product-queries.maximum-size=0",
+                "logging.level.root=WARN"
+        ), Arrays.stream(extraProperties)).forEach(property -> {
+            // Extra properties replace the defaults; a repeated argument would be joined into a list
+            int separator = property.indexOf('=');
+            properties.put(property.substring(0, separator), property.substring(separator + 1));
+        });
+
+        // Passed as command-line arguments so they also win over profile-specific files
+        return new SpringApplicationBuilder(RealShopApiApplication.class)
+                .web(webApplicationType)
+                .run(properties.entrySet().stream().map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+    }
+
+    // Products get ids 1..count on a fresh database; the id sequence is moved past them
+    static void seedProducts(JdbcTemplate jdbcTemplate, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < count; from += SEED_BATCH) {
+            List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+            for (int i = from; i < Math.min(from + SEED_BATCH, count); i++) {
+                rows.add(new Object[]{i + 1, "Product " + i, 1 + (i * 7919 % 100_000) / 100.0,
+                        "Generated product number " + i + " for benchmarking", "default-image.png",
+                        CATEGORIES[i % CATEGORIES.length], now, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO products (id, title, price, description, image, category, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE products_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM products)");
+    }
+
+    // Carts get ids 1..count on a fresh database; each holds itemsPerCart lines over products 1..productCount
+    static void seedCarts(JdbcTemplate jdbcTemplate, int count, int itemsPerCart, int productCount) {
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        for (int from = 0; from < count; from += SEED_BATCH) {
+            List<Object[]> carts = new ArrayList<>(SEED_BATCH);
+            List<Object[]> items = new ArrayList<>(SEED_BATCH * itemsPerCart);
+            for (int i = from; i < Math.min(from + SEED_BATCH, count); i++) {
+                LocalDateTime createdAt = start.plusMinutes(i);
+                carts.add(new Object[]{1 + i % 10_000, createdAt, createdAt, 0L});
+                for (int j = 0; j < itemsPerCart; j++) {
+                    items.add(new Object[]{i + 1, 1 + (i * 31 + j * 17) % productCount, 1 + j % 3});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO carts (user_id, created_at, updated_at, version) VALUES (?, ?, ?, ?)", carts);
+            jdbcTemplate.batchUpdate("INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (?, ?, ?)", items);
+        }
+    }
+}
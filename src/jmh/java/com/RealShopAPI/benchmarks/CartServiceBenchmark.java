@@ -0,0 +1,59 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.dto.CursorPageDTO;
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.services.CartService;
+import com.RealShopAPI.services.PageCursor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cart listing reads (100 carts with 3 items each) against a seeded database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CartServiceBenchmark {
+
+    private static final int PRODUCTS = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkApplication.seedProducts(jdbcTemplate, PRODUCTS);
+        BenchmarkApplication.seedCarts(jdbcTemplate, rows, 3, PRODUCTS);
+        cartService = context.getBean(CartService.class);
+
+        long middle = rows / 2;
+        deepCursor = new PageCursor("id", Sort.Direction.ASC, middle, String.valueOf(middle)).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Cart> getAllCarts() {
+        return cartService.getAllCarts("100", null, null, null);
+    }
+
+    @Benchmark
+    public CursorPageDTO<Cart> getCartPageFromMiddle() {
+        return cartService.getCartPage(100, "asc", null, null, deepCursor);
+    }
+}
@@ -0,0 +1,58 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.services.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Cart item updates from many threads, synchronous vs. write-behind
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Threads(16)
+public class CartWriteBenchmark {
+
+    private static final int PRODUCTS = 1000;
+    private static final int CARTS = 10000;
+
+    @Param({"sync", "write-behind"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path logDirectory = Files.createTempDirectory("cart-wal");
+        context = BenchmarkApplication.start(
+                "realshop.carts.write-behind.enabled=" + mode.equals("write-behind"),
+                "realshop.carts.write-behind.log-dir=" + logDirectory);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkApplication.seedProducts(jdbcTemplate, PRODUCTS);
+        BenchmarkApplication.seedCarts(jdbcTemplate, CARTS, 3, PRODUCTS);
+        cartService = context.getBean(CartService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Cart setItemQuantity() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long cartId = random.nextLong(1, CARTS + 1);
+        long productId = random.nextLong(1, PRODUCTS + 1);
+        return cartService.setItemQuantity(cartId, productId, random.nextInt(1, 5));
+    }
+}
@@ -0,0 +1,134 @@
+package com.RealShopAPI.benchmarks;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /products/{id} over HTTP from 5,000 concurrent clients, with Tomcat's platform thread pool vs. the
+ * virtual profile (virtual threads behind the database bulkhead). The application runs in-process on a
+ * random port against an H2 server over TCP; product caches are off and rate limiting is disabled, so
+ * every request borrows a connection.
+ * <p>
+ * Each invocation releases all clients at once, one virtual thread each, and every client sends
+ * {@link #REQUESTS_PER_CLIENT} requests back to back over its keep-alive connection. The score is the
+ * time for the whole round; throughput and the p99 request latency of each round are printed with it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ConcurrentClientsBenchmark {
+
+    private static final int CLIENTS = 5_000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int PRODUCTS = 100_000;
+
+    @Param({"platform", "virtual"})
+    public String profile;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private long[] latencies;
+    private long roundNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists",
+                "-baseDir", Files.createTempDirectory("h2-server").toString()).start();
+        String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/bench";
+
+        context = profile.equals("virtual")
+                ? BenchmarkApplication.start(WebApplicationType.SERVLET, "spring.profiles.active=virtual",
+                "spring.datasource.url=" + url, "server.port=0", "realshop.rate-limit.enabled=false")
+                : BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "spring.datasource.url=" + url, "server.port=0", "realshop.rate-limit.enabled=false");
+
+        BenchmarkApplication.seedProducts(context.getBean(JdbcTemplate.class), PRODUCTS);
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/products/";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        httpClient.close();
+        context.close();
+        server.stop();
+    }
+
+    // Runs outside the measured round; the numbers land in the JMH output next to the round's time
+    @TearDown(Level.Iteration)
+    public void report() {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%n%s: %.0f requests/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms%n", profile,
+                sorted.length / (roundNanos / 1e9), sorted[sorted.length / 2] / 1e6,
+                sorted[(int) (sorted.length * 0.99)] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    @Benchmark
+    public void productsById() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> clients = new ArrayList<>(CLIENTS);
+        long began;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < CLIENTS; client++) {
+                int first = client * REQUESTS_PER_CLIENT;
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = first; i < first + REQUESTS_PER_CLIENT; i++) {
+                        latencies[i] = productById();
+                    }
+                    return null;
+                }));
+            }
+            began = System.nanoTime();
+            start.countDown();
+            for (Future<?> client : clients) {
+                client.get();
+            }
+        }
+        roundNanos = System.nanoTime() - began;
+    }
+
+    // Returns the request's latency in nanoseconds
+    private long productById() throws Exception {
+        long id = ThreadLocalRandom.current().nextLong(1, PRODUCTS + 1);
+        long sent = System.nanoTime();
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + id))
+                .timeout(Duration.ofSeconds(60)).build(), HttpResponse.BodyHandlers.discarding());
+        long latency = System.nanoTime() - sent;
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + baseUrl + id + " answered " + response.statusCode());
+        }
+        return latency;
+    }
+}
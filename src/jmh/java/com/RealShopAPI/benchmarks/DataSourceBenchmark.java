@@ -0,0 +1,100 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.dto.CursorPageDTO;
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.models.CartItem;
+import com.RealShopAPI.models.Product;
+import com.RealShopAPI.services.CartService;
+import com.RealShopAPI.services.ProductService;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Default settings vs. the prod profile against an H2 server over TCP, under concurrent load
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Threads(16)
+public class DataSourceBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int CARTS = 100_000;
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private CartService cartService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists",
+                "-baseDir", Files.createTempDirectory("h2-server").toString()).start();
+        String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/bench";
+
+        context = profile.equals("prod")
+                ? BenchmarkApplication.start("spring.profiles.active=prod", "spring.datasource.url=" + url)
+                : BenchmarkApplication.start("spring.datasource.url=" + url);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkApplication.seedProducts(jdbcTemplate, PRODUCTS);
+        BenchmarkApplication.seedCarts(jdbcTemplate, CARTS, 3, PRODUCTS);
+        productService = context.getBean(ProductService.class);
+        cartService = context.getBean(CartService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        context.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public List<ProductDTO> productListing() {
+        String category = BenchmarkApplication.CATEGORIES[ThreadLocalRandom.current().nextInt(BenchmarkApplication.CATEGORIES.length)];
+        return productService.getProducts(category, "price", "asc", 100);
+    }
+
+    @Benchmark
+    public Map<Long, Product> productsById() {
+        int size = ThreadLocalRandom.current().nextInt(1, 50);
+        long first = ThreadLocalRandom.current().nextLong(1, PRODUCTS - size);
+        return productService.getProductsById(LongStream.range(first, first + size).boxed().toList());
+    }
+
+    @Benchmark
+    public CursorPageDTO<Cart> cartPage() {
+        return cartService.getCartPage(100, "desc", null, null, null);
+    }
+
+    @Benchmark
+    public Cart createCart() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Cart cart = new Cart();
+        cart.setUserId(random.nextLong(1, 10_000));
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            CartItem item = new CartItem(random.nextLong(1, PRODUCTS + 1), 1);
+            item.setCart(cart);
+            items.add(item);
+        }
+        cart.setCartItems(items);
+        return cartService.createCart(cart);
+    }
+}
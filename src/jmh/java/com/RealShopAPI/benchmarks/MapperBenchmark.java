@@ -0,0 +1,75 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.dto.CartDTO;
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.models.CartItem;
+import com.RealShopAPI.models.Product;
+import com.RealShopAPI.services.CartMapper;
+import com.RealShopAPI.services.ProductMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-object cost of the entity <-> DTO mappers; run with -prof gc for bytes allocated per call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1", "20"})
+    public int itemsPerCart;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private final CartMapper cartMapper = new CartMapper();
+
+    private Product product;
+    private ProductDTO productDTO;
+    private Cart cart;
+    private CartDTO cartDTO;
+
+    @Setup
+    public void setUp() {
+        product = new Product(42L, "Mens Casual Premium Slim Fit T-Shirts", 22.3,
+                "Slim-fitting style, contrast raglan long sleeve, three-button henley placket.",
+                "https://example.com/images/42.jpg", "men's clothing");
+        productDTO = productMapper.toDto(product);
+
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < itemsPerCart; i++) {
+            items.add(new CartItem((long) i + 1, 1 + i % 3));
+        }
+        cart = new Cart();
+        cart.setId(7L);
+        cart.setUserId(3L);
+        cart.setCreatedAt(LocalDateTime.now());
+        cart.setCartItems(items);
+        cartDTO = cartMapper.toDto(cart);
+    }
+
+    @Benchmark
+    public ProductDTO productToDto() {
+        return productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public Product productToEntity() {
+        return productMapper.toEntity(productDTO);
+    }
+
+    @Benchmark
+    public CartDTO cartToDto() {
+        return cartMapper.toDto(cart);
+    }
+
+    @Benchmark
+    public Cart cartToEntity() {
+        return cartMapper.toEntity(cartDTO);
+    }
+}
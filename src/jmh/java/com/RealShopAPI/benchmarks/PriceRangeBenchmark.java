@@ -0,0 +1,78 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.models.Product;
+import com.RealShopAPI.repositories.ProductRepository;
+import com.RealShopAPI.repositories.ProductSpecifications;
+import com.RealShopAPI.services.ProductPriceIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Price-range listings (category + range + sort + limit) from the in-memory price index vs. the database,
+// and the cost of one product write to the index
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class PriceRangeBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    @Param({"price", "id"})
+    public String sortBy;
+
+    private ConfigurableApplicationContext context;
+    private ProductPriceIndex productPriceIndex;
+    private ProductRepository productRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seedProducts(context.getBean(JdbcTemplate.class), PRODUCTS);
+        productRepository = context.getBean(ProductRepository.class);
+        productPriceIndex = context.getBean(ProductPriceIndex.class);
+        // Rows were seeded after startup, so build the index again
+        productPriceIndex.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDTO> index() {
+        double min = ThreadLocalRandom.current().nextDouble(1, 900);
+        String category = BenchmarkApplication.CATEGORIES[ThreadLocalRandom.current().nextInt(BenchmarkApplication.CATEGORIES.length)];
+        return productPriceIndex.find(category, min, min + 100, sortBy, "asc", 100);
+    }
+
+    // Moves one product to a new price within its category, as a single-product write does
+    @Benchmark
+    public void indexWrite() {
+        long id = ThreadLocalRandom.current().nextLong(1, PRODUCTS + 1);
+        String category = BenchmarkApplication.CATEGORIES[(int) ((id - 1) % BenchmarkApplication.CATEGORIES.length)];
+        Product product = new Product(id, "Product " + id, ThreadLocalRandom.current().nextDouble(1, 1000),
+                null, "default-image.png", category);
+        productPriceIndex.onProductsChanged(ProductsChangedEvent.of(ProductChange.updated(category, product)));
+    }
+
+    @Benchmark
+    public List<ProductDTO> database() {
+        double min = ThreadLocalRandom.current().nextDouble(1, 900);
+        String category = BenchmarkApplication.CATEGORIES[ThreadLocalRandom.current().nextInt(BenchmarkApplication.CATEGORIES.length)];
+        return productRepository.findProjected(
+                ProductSpecifications.inCategory(category).and(ProductSpecifications.priceBetween(min, min + 100)),
+                Sort.by(sortBy).and(Sort.by("id")), 100);
+    }
+}
@@ -0,0 +1,140 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.dto.ImportResultDTO;
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.models.Product;
+import com.RealShopAPI.services.ProductImportService;
+import com.RealShopAPI.services.ProductService;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product rows written per second: one INSERT round trip per row (the statement pattern IDENTITY ids
+ * force on Hibernate), entity saveAll with sequence ids and Hibernate insert batching, and the
+ * streaming NDJSON import with JDBC batches. All paths publish the same ProductsChangedEvent, so
+ * they differ only in how rows reach the database: an H2 server over TCP, as in production.
+ * Every iteration starts from an empty database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProductImportBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    @Param({"row-by-row", "entity-batch", "import"})
+    public String path;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ProductService productService;
+    private ProductImportService productImportService;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void prepareRows() throws Exception {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists",
+                "-baseDir", Files.createTempDirectory("h2-server").toString()).start();
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            body.append("{\"title\":\"Product ").append(i).append("\",\"price\":").append(1 + i % 1000)
+                    .append(",\"description\":\"Imported product number ").append(i)
+                    .append("\",\"category\":\"").append(BenchmarkApplication.CATEGORIES[i % BenchmarkApplication.CATEGORIES.length])
+                    .append("\"}\n");
+        }
+        ndjson = body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        context = BenchmarkApplication.start("realshop.import.chunk-size=1000",
+                "spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/import-" + UUID.randomUUID());
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        productService = context.getBean(ProductService.class);
+        productImportService = context.getBean(ProductImportService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long writeProducts() throws IOException {
+        return switch (path) {
+            case "row-by-row" -> insertRowByRow();
+            case "entity-batch" -> productService.createProducts(newProducts()).size();
+            default -> {
+                ImportResultDTO result = productImportService.importProducts(
+                        new ByteArrayInputStream(ndjson), ProductImportService.Format.NDJSON);
+                yield result.getImported();
+            }
+        };
+    }
+
+    private long insertRowByRow() {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            List<ProductChange> changes = new ArrayList<>(ROWS);
+            for (Product product : newProducts()) {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement("INSERT INTO products "
+                            + "(id, title, price, description, image, category, created_at, updated_at) "
+                            + "VALUES (NEXT VALUE FOR products_seq, ?, ?, ?, ?, ?, ?, ?)", new String[]{"id"});
+                    ps.setString(1, product.getTitle());
+                    ps.setObject(2, product.getPrice());
+                    ps.setString(3, product.getDescription());
+                    ps.setString(4, product.getImage());
+                    ps.setString(5, product.getCategory());
+                    ps.setObject(6, now);
+                    ps.setObject(7, now);
+                    return ps;
+                }, keyHolder);
+                changes.add(ProductChange.created(new Product(keyHolder.getKeyAs(Long.class), product.getTitle(),
+                        product.getPrice(), product.getDescription(), product.getImage(), product.getCategory())));
+            }
+            context.publishEvent(new ProductsChangedEvent(changes));
+            return (long) changes.size();
+        });
+    }
+
+    private static List<Product> newProducts() {
+        List<Product> products = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            products.add(new Product(null, "Product " + i, 1.0 + i % 1000, "Imported product number " + i,
+                    "default-image.png", BenchmarkApplication.CATEGORIES[i % BenchmarkApplication.CATEGORIES.length]));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,63 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.models.Product;
+import com.RealShopAPI.repositories.ProductRepository;
+import com.RealShopAPI.services.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /products?sortBy=price&sort=desc&limit=20: the former controller path (load everything,
+ * sort with a Comparator, truncate) against the query path in ProductService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProductListingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seedProducts(context.getBean(JdbcTemplate.class), rows);
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> inMemorySortAndLimit() {
+        List<Product> products = productRepository.findAll();
+        products.sort(Comparator.comparing(Product::getPrice).reversed());
+        return products.stream().limit(20).toList();
+    }
+
+    @Benchmark
+    public List<ProductDTO> databaseSortAndLimit() {
+        return productService.getProducts(null, "price", "desc", 20);
+    }
+
+    @Benchmark
+    public List<ProductDTO> databaseCategorySortAndLimit() {
+        return productService.getProducts(BenchmarkApplication.CATEGORIES[0], "title", "asc", 20);
+    }
+}
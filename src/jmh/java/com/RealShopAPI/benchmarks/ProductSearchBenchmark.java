@@ -0,0 +1,46 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.services.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Search queries against the in-memory inverted index: a rare term, common terms, prefixes and a mix
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    @Param({"4242", "product books", "gen", "product 4242 electronics", "p"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private ProductSearchIndex productSearchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seedProducts(context.getBean(JdbcTemplate.class), PRODUCTS);
+        productSearchIndex = context.getBean(ProductSearchIndex.class);
+        // Rows were seeded after startup, so build the index again
+        productSearchIndex.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return productSearchIndex.search(query, 20);
+    }
+}
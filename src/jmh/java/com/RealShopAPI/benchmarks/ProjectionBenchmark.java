@@ -0,0 +1,87 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.models.Product;
+import com.RealShopAPI.repositories.ProductRepository;
+import com.RealShopAPI.repositories.ProductSpecifications;
+import com.RealShopAPI.services.ProductMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A product listing read as managed entities and mapped by ProductMapper (read-write and read-only
+ * transactions) against the same listing projected straight into DTOs. Run with the gc profiler
+ * (the jmh profile default) and compare gc.alloc.rate.norm per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProjectionBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    @Param({"100", "1000"})
+    public int limit;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductMapper productMapper;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seedProducts(context.getBean(JdbcTemplate.class), PRODUCTS);
+        productRepository = context.getBean(ProductRepository.class);
+        productMapper = context.getBean(ProductMapper.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        pageRequest = PageRequest.of(0, limit, Sort.by("price", "id"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDTO> entitiesReadWrite() {
+        return readWrite.execute(status -> entities().stream()
+                .map(productMapper::toDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<ProductDTO> entitiesReadOnly() {
+        return readOnly.execute(status -> entities().stream()
+                .map(productMapper::toDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<ProductDTO> projection() {
+        return readOnly.execute(status -> productRepository.findAllProjectedBy(pageRequest));
+    }
+
+    // The same bounded, sorted page as managed entities (no count query)
+    private List<Product> entities() {
+        return productRepository.findBy(ProductSpecifications.inCategory(null),
+                query -> query.sortBy(pageRequest.getSort()).limit(limit).all());
+    }
+}
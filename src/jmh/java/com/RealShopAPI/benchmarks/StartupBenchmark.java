@@ -0,0 +1,109 @@
+package com.RealShopAPI.benchmarks;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to first request: from launching the packaged application until GET /products/categories
+ * answers, with the regular jar vs. the fast-start build (faststart profile, AOT classes, CDS archive).
+ * Needs the artifacts of mvn -Pfaststart package. Both modes run against the same H2 file
+ * database, migrated once up front, so the fast-start run can skip migrations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path FASTSTART = TARGET.resolve("faststart");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"default", "faststart"})
+    public String mode;
+
+    private String databaseUrl;
+    private List<String> command;
+    private HttpClient httpClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        databaseUrl = "jdbc:h2:file:" + Files.createTempDirectory("startup").resolve("realshop").toAbsolutePath();
+        Flyway.configure().dataSource(databaseUrl, "sa", "").load().migrate();
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        command = new ArrayList<>(List.of(java));
+        if (mode.equals("faststart")) {
+            command.addAll(List.of("-XX:SharedArchiveFile=" + FASTSTART.resolve("application.jsa"),
+                    "-Dspring.aot.enabled=true", "-jar", applicationJar(FASTSTART).toString(),
+                    "--spring.profiles.active=faststart"));
+        } else {
+            command.addAll(List.of("-jar", applicationJar(TARGET).toString()));
+        }
+        command.addAll(List.of("--spring.datasource.url=" + databaseUrl, "--logging.level.root=WARN"));
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        int port = freePort();
+        List<String> args = new ArrayList<>(command);
+        args.add("--server.port=" + port);
+        Process process = new ProcessBuilder(args)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products/categories")).build();
+            long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                try {
+                    return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (ConnectException ex) {
+                    Thread.sleep(5);
+                }
+            }
+            throw new IllegalStateException("Application did not answer within " + STARTUP_TIMEOUT);
+        } finally {
+            // Wait for a clean shutdown so the next run can open the database file
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static Path applicationJar(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("RealShopAPI-.*\\.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No application jar in " + directory + ", run mvn -Pfaststart package first"));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.services.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 1000 buyers reserving and releasing stock through their own carts, all on one SKU vs. spread over the catalog
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Threads(1000)
+public class StockReservationBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int CARTS = 1000;
+    private static final long HOT_PRODUCT = 1;
+
+    @Param({"hot", "spread"})
+    public String sku;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private final AtomicLong nextCart = new AtomicLong();
+
+    // Each benchmark thread owns a cart, so only the stock rows are contended
+    @State(Scope.Thread)
+    public static class Buyer {
+        long cartId;
+        long productId;
+        boolean holding;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "spring.datasource.hikari.maximum-pool-size=32",
+                "spring.datasource.hikari.connection-timeout=120000");
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkApplication.seedProducts(jdbcTemplate, PRODUCTS);
+        BenchmarkApplication.seedCarts(jdbcTemplate, CARTS, 0, PRODUCTS);
+
+        List<Object[]> stock = new ArrayList<>(PRODUCTS);
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            stock.add(new Object[]{productId, 1_000_000_000L});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product_stock (product_id, available, reserved) VALUES (?, ?, 0)", stock);
+        cartService = context.getBean(CartService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Alternately reserves one unit and releases it again
+    @Benchmark
+    public Cart reserveAndRelease(Buyer buyer) {
+        if (buyer.cartId == 0) {
+            buyer.cartId = nextCart.incrementAndGet();
+        }
+        if (buyer.holding) {
+            buyer.holding = false;
+            return cartService.setItemQuantity(buyer.cartId, buyer.productId, 0);
+        }
+        buyer.productId = sku.equals("hot") ? HOT_PRODUCT : ThreadLocalRandom.current().nextLong(1, PRODUCTS + 1);
+        buyer.holding = true;
+        return cartService.setItemQuantity(buyer.cartId, buyer.productId, 1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.RealShopAPI.benchmarks;
+
+import com.RealShopAPI.dto.ProductDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization time of a 10k-product page per wire format, as configured in WireFormatConfig.
+ * Bytes on the wire (raw and gzipped) are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class WireFormatBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    // json-reflection is plain Jackson without the Blackbird module
+    @Param({"json-reflection", "json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private List<ProductDTO> products;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "json-reflection" -> new ObjectMapper();
+            case "json" -> new ObjectMapper().registerModule(new BlackbirdModule());
+            case "smile" -> new ObjectMapper(new SmileFactory().configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true))
+                    .registerModule(new BlackbirdModule());
+            case "cbor" -> new ObjectMapper(new CBORFactory()).registerModule(new BlackbirdModule());
+            default -> throw new IllegalArgumentException(format);
+        };
+
+        products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new ProductDTO((long) i + 1, "Product " + i, 1 + (i * 7919 % 100_000) / 100.0,
+                    "Generated product number " + i + " with a description long enough to look like a real catalog entry, "
+                            + "mentioning materials, sizes and care instructions.",
+                    "https://cdn.realshop.example/images/products/" + (i % 500) + ".png",
+                    BenchmarkApplication.CATEGORIES[i % BenchmarkApplication.CATEGORIES.length]));
+        }
+
+        encoded = objectMapper.writeValueAsBytes(products);
+        System.out.printf("%n%s: %d bytes, %d bytes gzipped%n", format, encoded.length, gzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        return gzip();
+    }
+
+    @Benchmark
+    public List<ProductDTO> deserialize() throws IOException {
+        return objectMapper.readValue(encoded, new TypeReference<>() {
+        });
+    }
+
+    private byte[] gzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, products);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,113 @@
+package com.RealShopAPI.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource that admits at most a fixed number of borrowed connections at a time.
+ * Callers park on a fair semaphore before reaching the pool, which keeps thousands of
+ * virtual threads from stampeding the pool and turns a long wait into a fast, explicit failure.
+ * The permit is returned when the connection is closed.
+ * <p>
+ * Only a thread's first connection takes a permit. A thread that already holds one and borrows
+ * another (a REQUIRES_NEW transaction, for example) goes straight to the pool, so it never waits
+ * for permits held by threads that may be waiting for it. The pool must therefore be larger than
+ * the number of permits; the difference is the headroom for those nested connections.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    // Connections borrowed through this bulkhead by the current thread and not closed yet
+    private final ThreadLocal<AtomicInteger> heldByThread = ThreadLocal.withInitial(AtomicInteger::new);
+
+    public BulkheadDataSource(DataSource target, int maxConcurrent, Duration acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return borrow(super::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return borrow(() -> super.getConnection(username, password));
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Database bulkhead full: no connection permit within " + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection permit", ex);
+        }
+    }
+
+    private Connection borrow(ConnectionSource source) throws SQLException {
+        AtomicInteger held = heldByThread.get();
+        boolean needsPermit = held.get() == 0;
+        if (needsPermit) {
+            acquire();
+        }
+        try {
+            Connection connection = source.getConnection();
+            held.incrementAndGet();
+            return releasingOnClose(connection, held, needsPermit);
+        } catch (SQLException | RuntimeException ex) {
+            if (needsPermit) {
+                permits.release();
+            }
+            throw ex;
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection, AtomicInteger held, boolean hasPermit) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    } finally {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            held.decrementAndGet();
+                            if (hasPermit) {
+                                permits.release();
+                            }
+                        }
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+}
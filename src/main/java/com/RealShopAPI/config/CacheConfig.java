@@ -0,0 +1,45 @@
+package com.RealShopAPI.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_CATEGORIES = "productCategories";
+    public static final String PRODUCT_QUERIES = "productQueries";
+
+    // Caches are registered with a CacheManager so actuator publishes their hit/miss/eviction stats
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${realshop.cache.products.maximum-size:10000}") long productsSize,
+            @Value("${realshop.cache.products.ttl:10m}") Duration productsTtl,
+            @Value("${realshop.cache.product-queries.maximum-size:500}") long queriesSize,
+            @Value("${realshop.cache.product-queries.ttl:5m}") Duration queriesTtl) {
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                caffeineCache(PRODUCTS, productsSize, productsTtl),
+                caffeineCache(PRODUCT_CATEGORIES, 1, productsTtl),
+                caffeineCache(PRODUCT_QUERIES, queriesSize, queriesTtl)
+        ));
+        return cacheManager;
+    }
+
+    private static CaffeineCache caffeineCache(String name, long maximumSize, Duration ttl) {
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+}
@@ -0,0 +1,69 @@
+package com.RealShopAPI.config;
+
+import com.RealShopAPI.ratelimit.LoadShedder;
+import com.RealShopAPI.ratelimit.RateLimitInterceptor;
+import com.RealShopAPI.ratelimit.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-client rate limiting and load shedding in front of the controllers (realshop.rate-limit.*
+ * and realshop.load-shedding.*). Endpoint weights are declared with @RateLimitCost.
+ */
+@Configuration
+@ConditionalOnProperty(name = "realshop.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public TokenBucketRateLimiter clientRateLimiter(Environment environment) {
+        return new TokenBucketRateLimiter(
+                environment.getProperty("realshop.rate-limit.tokens-per-second", Double.class, 50.0),
+                environment.getProperty("realshop.rate-limit.burst", Integer.class, 200),
+                environment.getProperty("realshop.rate-limit.max-clients", Long.class, 100_000L));
+    }
+
+    @Bean
+    public LoadShedder loadShedder(DataSource dataSource, Environment environment) {
+        return new LoadShedder(dataSource,
+                environment.getProperty("realshop.load-shedding.latency-threshold", Duration.class, Duration.ofSeconds(1)),
+                environment.getProperty("realshop.load-shedding.max-pool-waiting", Integer.class, 10));
+    }
+
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor(TokenBucketRateLimiter clientRateLimiter, LoadShedder loadShedder,
+                                                     Environment environment, MeterRegistry meterRegistry) {
+        Gauge.builder("realshop.rate.limit.clients", clientRateLimiter, TokenBucketRateLimiter::getClients)
+                .description("Clients with a live token bucket")
+                .register(meterRegistry);
+        Gauge.builder("realshop.load.shedding.latency", loadShedder, shedder -> shedder.getAverageLatencyNanos() / 1e9)
+                .description("Moving average of request latency used for load shedding, in seconds")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        return new RateLimitInterceptor(clientRateLimiter, loadShedder,
+                environment.getProperty("realshop.rate-limit.client-header", "X-API-Key"),
+                Set.copyOf(List.of(environment.getProperty("realshop.rate-limit.api-keys", String[].class, new String[0]))),
+                meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer rateLimitWebMvcConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(rateLimitInterceptor).excludePathPatterns("/actuator/**");
+            }
+        };
+    }
+}
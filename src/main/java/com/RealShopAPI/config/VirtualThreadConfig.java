@@ -0,0 +1,50 @@
+package com.RealShopAPI.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Opt-in virtual-thread execution (profile "virtual"). Tomcat and the async executor switch to
+ * virtual threads through spring.threads.virtual.enabled; this class adds the pieces that make
+ * that safe for a JDBC-bound app: a bulkhead in front of the connection pool and pinning diagnostics.
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    // Wraps the pooled DataSource so at most realshop.db.bulkhead.max-concurrent connections are borrowed at once;
+    // by default that is the pool size minus the connections reserved for nested borrows
+    @Bean
+    @ConditionalOnProperty(name = "realshop.db.bulkhead.enabled", havingValue = "true")
+    public static BeanPostProcessor databaseBulkheadPostProcessor(Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int reserved = environment.getProperty("realshop.db.bulkhead.reserved-connections", Integer.class, 2);
+        int maxConcurrent = environment.getProperty("realshop.db.bulkhead.max-concurrent", Integer.class,
+                Math.max(1, poolSize - reserved));
+        Duration acquireTimeout = environment.getProperty("realshop.db.bulkhead.acquire-timeout", Duration.class,
+                Duration.ofSeconds(5));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, maxConcurrent, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(Environment environment) {
+        Duration threshold = environment.getProperty("realshop.virtual-threads.pinning-threshold", Duration.class,
+                Duration.ofMillis(20));
+        return new VirtualThreadPinningMonitor(threshold);
+    }
+}
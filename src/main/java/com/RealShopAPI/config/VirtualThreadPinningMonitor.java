@@ -0,0 +1,70 @@
+package com.RealShopAPI.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Listens for JFR jdk.VirtualThreadPinned events (a virtual thread blocked while pinned to its
+ * carrier, e.g. inside a synchronized block in the JDBC driver) and logs where it happened.
+ */
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+    }
+
+    @Override
+    public void destroy() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    public long getPinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+
+        String frames = "";
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> stack = event.getStackTrace().getFrames();
+            frames = stack.stream()
+                    .limit(LOGGED_FRAMES)
+                    .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                            + ":" + frame.getLineNumber())
+                    .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        }
+        log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), frames);
+    }
+}
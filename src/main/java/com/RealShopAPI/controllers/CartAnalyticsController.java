@@ -0,0 +1,54 @@
+package com.RealShopAPI.controllers;
+
+import com.RealShopAPI.dto.CartDailyStatsDTO;
+import com.RealShopAPI.dto.CartSummaryDTO;
+import com.RealShopAPI.dto.TopProductDTO;
+import com.RealShopAPI.services.CartAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/carts/analytics")
+public class CartAnalyticsController {
+
+    private final CartAnalyticsService cartAnalyticsService;
+
+    public CartAnalyticsController(CartAnalyticsService cartAnalyticsService) {
+        this.cartAnalyticsService = cartAnalyticsService;
+    }
+
+    // Carts created and items added per day; defaults to the last 30 days
+    @GetMapping("/daily")
+    public ResponseEntity<List<CartDailyStatsDTO>> getDailyStats(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startdate,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate enddate) {
+
+        return ResponseEntity.ok(cartAnalyticsService.getDailyStats(startdate, enddate));
+    }
+
+    // Total carts and items and the average items per cart over a date range
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummaryDTO> getSummary(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startdate,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate enddate) {
+
+        return ResponseEntity.ok(cartAnalyticsService.getSummary(startdate, enddate));
+    }
+
+    // Products with the highest quantity in carts over a date range
+    @GetMapping("/top-products")
+    public ResponseEntity<List<TopProductDTO>> getTopProducts(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startdate,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate enddate,
+        @RequestParam(required = false) Integer limit) {
+
+        return ResponseEntity.ok(cartAnalyticsService.getTopProducts(startdate, enddate, limit));
+    }
+}
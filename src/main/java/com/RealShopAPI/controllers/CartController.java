@@ -1,16 +1,29 @@
 package com.RealShopAPI.controllers;
 
+import com.RealShopAPI.dto.BatchItemResultDTO;
 import com.RealShopAPI.dto.CartDTO;
+import com.RealShopAPI.dto.CartItemDTO;
+import com.RealShopAPI.dto.CursorPageDTO;
 import com.RealShopAPI.exceptions.CartNotFoundException;
+import com.RealShopAPI.ratelimit.RateLimitCost;
+import com.RealShopAPI.services.CartPricingService;
 import com.RealShopAPI.services.CartService;
 import com.RealShopAPI.services.CartMapper;
+import com.RealShopAPI.services.CatalogVersion;
+import com.RealShopAPI.services.Paging;
 import com.RealShopAPI.models.Cart;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -20,31 +33,145 @@ public class CartController {
 
     private final CartService cartService;
     private final CartMapper cartMapper;
+    private final CartPricingService cartPricingService;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
 
-    public CartController(CartService cartService, CartMapper cartMapper) {
+    public CartController(CartService cartService, CartMapper cartMapper, CartPricingService cartPricingService,
+                          CatalogVersion catalogVersion, ObjectMapper objectMapper) {
         this.cartService = cartService;
         this.cartMapper = cartMapper;
+        this.cartPricingService = cartPricingService;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+    }
+
+    // ?expand=products adds product titles, unit prices, line totals and a cart total
+    private static boolean expandProducts(String expand) {
+        return "products".equalsIgnoreCase(expand);
+    }
+
+    private List<CartDTO> toDtos(List<Cart> carts, String expand) {
+        if (expandProducts(expand)) {
+            return cartPricingService.toPricedDtos(carts);
+        }
+        return carts.stream()
+                .map(cartMapper::toDto)
+                .collect(Collectors.toList());
     }
 
     @GetMapping
+    @RateLimitCost(10)
     public ResponseEntity<List<CartDTO>> getAllCarts(
         @RequestParam(required = false) String limit,
         @RequestParam(required = false) String sort,
         @RequestParam(required = false) String startdate,
-        @RequestParam(required = false) String enddate) {
+        @RequestParam(required = false) String enddate,
+        @RequestParam(required = false) String expand) {
         
-        List<CartDTO> cartDTOs = cartService.getAllCarts(limit, sort, startdate, enddate)
-                .stream()
-                .map(cartMapper::toDto)
-                .collect(Collectors.toList());
+        List<CartDTO> cartDTOs = toDtos(cartService.getAllCarts(limit, sort, startdate, enddate), expand);
         
         return ResponseEntity.ok(cartDTOs);
     }
 
+    @GetMapping("/stream")
+    @RateLimitCost(50)
+    public ResponseEntity<StreamingResponseBody> streamCarts(
+        @RequestParam(required = false) String startdate,
+        @RequestParam(required = false) String enddate,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        boolean ndjson = JsonStreamWriter.wantsNdjson(accept);
+        StreamingResponseBody body = JsonStreamWriter.<CartDTO>stream(objectMapper, ndjson,
+                sink -> cartService.forEachCart(startdate, enddate, cart -> sink.accept(cartMapper.toDto(cart))));
+
+        return ResponseEntity.ok().headers(JsonStreamWriter.headers(ndjson)).body(body);
+    }
+
+    @GetMapping("/page")
+    @RateLimitCost(5)
+    public ResponseEntity<CursorPageDTO<CartDTO>> getCartPage(
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) String startdate,
+        @RequestParam(required = false) String enddate,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String expand) {
+
+        CursorPageDTO<Cart> page = cartService.getCartPage(limit, sort, startdate, enddate, cursor);
+        return ResponseEntity.ok(new CursorPageDTO<>(toDtos(page.getItems(), expand), page.getNextCursor()));
+    }
+
+    // Get many carts by ID (?ids=1,2,3) with one query; every ID gets a result, OK or NOT_FOUND
+    @GetMapping("/batch")
+    @RateLimitCost(5)
+    public ResponseEntity<List<BatchItemResultDTO<CartDTO>>> getCartsBatch(
+        @RequestParam List<Long> ids,
+        @RequestParam(required = false) String expand) {
+
+        List<Long> uniqueIds = Paging.resolveBatchIds(ids);
+        Map<Long, Cart> carts = cartService.getCartsById(uniqueIds);
+        List<Cart> found = uniqueIds.stream().filter(carts::containsKey).map(carts::get).toList();
+        Map<Long, CartDTO> cartDTOs = toDtos(found, expand).stream()
+                .collect(Collectors.toMap(CartDTO::getId, cartDTO -> cartDTO));
+
+        List<BatchItemResultDTO<CartDTO>> results = uniqueIds.stream()
+                .map(id -> cartDTOs.containsKey(id)
+                        ? BatchItemResultDTO.ok(id, cartDTOs.get(id))
+                        : BatchItemResultDTO.<CartDTO>notFound(id))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(results);
+    }
+
+    // Apply partial updates to many carts in one transaction: userId and/or the full list of products
+    @PatchMapping("/batch")
+    @RateLimitCost(10)
+    public ResponseEntity<List<BatchItemResultDTO<CartDTO>>> updateCartsBatch(@RequestBody List<CartDTO> patches) {
+        List<BatchItemResultDTO<CartDTO>> results = cartService.updateCarts(patches).stream()
+                .map(result -> result.map(cartMapper::toDto))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(results);
+    }
+
+    // Delete many carts (?ids=1,2,3) in one transaction
+    @DeleteMapping("/batch")
+    @RateLimitCost(10)
+    public ResponseEntity<List<BatchItemResultDTO<Void>>> deleteCartsBatch(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(cartService.deleteCarts(ids));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<CartDTO> getCartById(@PathVariable Long id) {
+    public ResponseEntity<CartDTO> getCartById(
+        @PathVariable Long id,
+        @RequestParam(required = false) String expand,
+        WebRequest webRequest) {
+
+        // Answer repeat polls from the cart version alone, before loading the cart and its items.
+        // Priced carts also change with the catalog, so their tag includes the catalog version.
+        // Carts with unflushed write-behind changes have no version yet and are always sent.
+        boolean priced = expandProducts(expand);
+        String catalog = priced ? catalogVersion.current() : null;
+        WireFormat format = WireFormat.of(webRequest);
+        Long version = cartService.getCartVersion(id);
+        if (version != null && webRequest.checkNotModified(cartETag(id, version, catalog, format))) {
+            return WireFormat.notModified();
+        }
+
         Cart cart = cartService.getCartById(id);
-        return ResponseEntity.ok(cartMapper.toDto(cart));
+        CartDTO cartDTO = priced ? cartPricingService.toPricedDto(cart) : cartMapper.toDto(cart);
+        if (cart.getVersion() == null) {
+            return ResponseEntity.ok(cartDTO);
+        }
+        return ResponseEntity.ok()
+                .eTag(cartETag(cart.getId(), cart.getVersion(), catalog, format))
+                .body(cartDTO);
+    }
+
+    private static String cartETag(Long id, Long version, String catalogVersion, WireFormat format) {
+        String tag = "cart-" + id + "-" + version;
+        return format.etag(catalogVersion != null ? tag + "-" + catalogVersion : tag);
     }
 
     @PostMapping
@@ -75,6 +202,26 @@ public class CartController {
         return ResponseEntity.ok(cartMapper.toDto(updatedCart));
     }
 
+    @PostMapping("/{id}/items")
+    public ResponseEntity<CartDTO> addItem(@PathVariable Long id, @RequestBody CartItemDTO cartItemDTO) {
+        Cart cart = cartService.addItem(id, cartItemDTO.getProductId(), cartItemDTO.getQuantity());
+        return ResponseEntity.ok(cartMapper.toDto(cart));
+    }
+
+    @PutMapping("/{id}/items/{productId}")
+    public ResponseEntity<CartDTO> setItemQuantity(
+        @PathVariable Long id, @PathVariable Long productId, @RequestBody CartItemDTO cartItemDTO) {
+
+        Cart cart = cartService.setItemQuantity(id, productId, cartItemDTO.getQuantity());
+        return ResponseEntity.ok(cartMapper.toDto(cart));
+    }
+
+    @DeleteMapping("/{id}/items/{productId}")
+    public ResponseEntity<CartDTO> removeItem(@PathVariable Long id, @PathVariable Long productId) {
+        Cart cart = cartService.removeItem(id, productId);
+        return ResponseEntity.ok(cartMapper.toDto(cart));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCart(@PathVariable Long id) {
         cartService.deleteCart(id);
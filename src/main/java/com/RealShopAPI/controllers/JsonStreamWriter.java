@@ -0,0 +1,69 @@
+package com.RealShopAPI.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writes items to the response as they are produced, either as one JSON array
+ * or as NDJSON (one JSON document per line), so nothing is buffered beyond the current row.
+ */
+final class JsonStreamWriter {
+
+    static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
+    private JsonStreamWriter() {
+    }
+
+    // True when the client asked for NDJSON rather than a JSON array
+    static boolean wantsNdjson(String accept) {
+        return accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> mediaType.isCompatibleWith(APPLICATION_NDJSON) && !mediaType.isWildcardType());
+    }
+
+    static HttpHeaders headers(boolean ndjson) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON);
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        return headers;
+    }
+
+    /**
+     * Builds a response body that hands a sink to the producer; every item passed to the sink
+     * is serialized straight to the output stream.
+     */
+    static <T> StreamingResponseBody stream(ObjectMapper objectMapper, boolean ndjson, Consumer<Consumer<T>> producer) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                if (!ndjson) {
+                    generator.writeStartArray();
+                }
+
+                producer.accept(item -> {
+                    try {
+                        generator.writeObject(item);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+    }
+}
@@ -1,15 +1,35 @@
 package com.RealShopAPI.controllers;
 
+import com.RealShopAPI.dto.BatchItemResultDTO;
+import com.RealShopAPI.dto.CategoryDTO;
+import com.RealShopAPI.dto.CursorPageDTO;
+import com.RealShopAPI.dto.ImportResultDTO;
 import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.dto.StockDTO;
 import com.RealShopAPI.exceptions.ProductNotFoundException;
 import com.RealShopAPI.models.Product;
+import com.RealShopAPI.ratelimit.RateLimitCost;
+import com.RealShopAPI.services.CatalogVersion;
+import com.RealShopAPI.services.CategoryService;
+import com.RealShopAPI.services.Paging;
+import com.RealShopAPI.services.ProductImportService;
+import com.RealShopAPI.services.ProductSearchIndex;
 import com.RealShopAPI.services.ProductService;
 import com.RealShopAPI.services.ProductMapper;
+import com.RealShopAPI.services.StockService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Comparator;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -18,107 +38,206 @@ public class ProductController {
 
     private final ProductService productService;
     private final ProductMapper productMapper;
+    private final ProductImportService productImportService;
+    private final ProductSearchIndex productSearchIndex;
+    private final CategoryService categoryService;
+    private final CatalogVersion catalogVersion;
+    private final StockService stockService;
+    private final ObjectMapper objectMapper;
 
-    public ProductController(ProductService productService, ProductMapper productMapper) {
+    public ProductController(ProductService productService, ProductMapper productMapper,
+                             ProductImportService productImportService, ProductSearchIndex productSearchIndex,
+                             CategoryService categoryService, CatalogVersion catalogVersion,
+                             StockService stockService, ObjectMapper objectMapper) {
         this.productService = productService;
         this.productMapper = productMapper;
+        this.productImportService = productImportService;
+        this.productSearchIndex = productSearchIndex;
+        this.categoryService = categoryService;
+        this.catalogVersion = catalogVersion;
+        this.stockService = stockService;
+        this.objectMapper = objectMapper;
     }
 
-    // Get all products with optional filtering, sorting, and limiting
+    // Get all products with optional filtering (category, price range), sorting, and limiting
     @GetMapping
+    @RateLimitCost(10)
     public ResponseEntity<List<ProductDTO>> getAllProducts(
             @RequestParam(required = false) Integer limit,
             @RequestParam(required = false) String sort,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String sortBy
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            WebRequest webRequest
     ) {
-        List<Product> products;
-
-        if (category != null) {
-            products = productService.getProductsByCategory(category);
-        } else {
-            products = productService.getAllProducts();
+        // The tag is taken before reading, so a concurrent write can only make it older than the body
+        String etag = WireFormat.of(webRequest).etag(catalogVersion.current());
+        if (webRequest.checkNotModified(etag)) {
+            return WireFormat.notModified();
         }
 
-        // Default sort by id in ascending order
-        if ("desc".equalsIgnoreCase(sort)) {
-            products.sort(Comparator.comparing(Product::getId).reversed());
-        } else if ("asc".equalsIgnoreCase(sort)) {
-            products.sort(Comparator.comparing(Product::getId));
-        }
+        // Listings are read as DTO projections, no mapping needed
+        List<ProductDTO> productsDTO = minPrice != null || maxPrice != null
+                ? productService.getProductsInPriceRange(category, minPrice, maxPrice, sortBy, sort, limit)
+                : productService.getProducts(category, sortBy, sort, limit);
 
-        // Sorting by other fields, if specified
-        if (sortBy != null) {
-            if ("price".equalsIgnoreCase(sortBy)) {
-                if ("desc".equalsIgnoreCase(sort)) {
-                    products.sort(Comparator.comparing(Product::getPrice).reversed());
-                } else {
-                    products.sort(Comparator.comparing(Product::getPrice));
-                }
-            } else if ("title".equalsIgnoreCase(sortBy)) {
-                if ("desc".equalsIgnoreCase(sort)) {
-                    products.sort(Comparator.comparing(Product::getTitle).reversed());
-                } else {
-                    products.sort(Comparator.comparing(Product::getTitle));
-                }
-            }
-        }
+        return ResponseEntity.ok().eTag(etag).body(productsDTO);
+    }
 
-        // Apply the limit if it's provided
-        if (limit != null && limit > 0) {
-            products = products.stream().limit(limit).collect(Collectors.toList());
-        }
+    // Stream every product as a JSON array, or as NDJSON when the client accepts application/x-ndjson
+    @GetMapping("/stream")
+    @RateLimitCost(50)
+    public ResponseEntity<StreamingResponseBody> streamProducts(
+            @RequestParam(required = false) String category,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
+        boolean ndjson = JsonStreamWriter.wantsNdjson(accept);
+        StreamingResponseBody body = JsonStreamWriter.<ProductDTO>stream(objectMapper, ndjson,
+                sink -> productService.forEachProduct(category, sink));
 
-        // Map products to ProductDTOs
-        List<ProductDTO> productsDTO = products.stream()
-                .map(productMapper::toDto)
+        return ResponseEntity.ok().headers(JsonStreamWriter.headers(ndjson)).body(body);
+    }
+
+    // Get products one keyset page at a time; pass the returned nextCursor to fetch the following page
+    @GetMapping("/page")
+    @RateLimitCost(5)
+    public ResponseEntity<CursorPageDTO<ProductDTO>> getProductPage(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String cursor
+    ) {
+        return ResponseEntity.ok(productService.getProductPage(category, sortBy, sort, limit, cursor));
+    }
+
+    // Search title, description and category; every word must match a term exactly or as a prefix
+    @GetMapping("/search")
+    @RateLimitCost(2)
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        List<Long> ids = productSearchIndex.search(q, Math.min(Paging.resolveLimit(limit), 100));
+        Map<Long, Product> products = productService.getProductsById(ids);
+
+        // Back in ranking order; a product deleted since it was indexed is skipped
+        List<ProductDTO> productDTOs = ids.stream()
+                .filter(products::containsKey)
+                .map(id -> productMapper.toDto(products.get(id)))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(productDTOs);
+    }
+
+    // Get many products by ID (?ids=1,2,3) with one lookup; every ID gets a result, OK or NOT_FOUND
+    @GetMapping("/batch")
+    @RateLimitCost(5)
+    public ResponseEntity<List<BatchItemResultDTO<ProductDTO>>> getProductsBatch(@RequestParam List<Long> ids) {
+        List<Long> uniqueIds = Paging.resolveBatchIds(ids);
+        Map<Long, Product> products = productService.getProductsById(uniqueIds);
+
+        List<BatchItemResultDTO<ProductDTO>> results = uniqueIds.stream()
+                .map(id -> products.containsKey(id)
+                        ? BatchItemResultDTO.ok(id, productMapper.toDto(products.get(id)))
+                        : BatchItemResultDTO.<ProductDTO>notFound(id))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(results);
+    }
+
+    // Apply partial updates to many products in one transaction; only non-null fields are changed
+    @PatchMapping("/batch")
+    @RateLimitCost(10)
+    public ResponseEntity<List<BatchItemResultDTO<ProductDTO>>> updateProductsBatch(@RequestBody List<ProductDTO> patches) {
+        List<BatchItemResultDTO<ProductDTO>> results = productService.updateProducts(patches).stream()
+                .map(result -> result.map(productMapper::toDto))
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(productsDTO);
+        return ResponseEntity.ok(results);
+    }
+
+    // Delete many products (?ids=1,2,3) in one transaction
+    @DeleteMapping("/batch")
+    @RateLimitCost(10)
+    public ResponseEntity<List<BatchItemResultDTO<Void>>> deleteProductsBatch(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productService.deleteProducts(ids));
     }
 
     // Get product by ID
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = WireFormat.of(webRequest).etag(catalogVersion.current());
+        if (webRequest.checkNotModified(etag)) {
+            return WireFormat.notModified();
+        }
+
         Product product = productService.getProductById(id);
-        return ResponseEntity.ok(productMapper.toDto(product));
+        return ResponseEntity.ok().eTag(etag).body(productMapper.toDto(product));
+    }
+
+    // Get the available and reserved stock of a product; both are null if its stock is not tracked
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockDTO> getStock(@PathVariable Long id) {
+        return ResponseEntity.ok(stockService.getStock(id));
+    }
+
+    // Set the available stock of a product, which starts tracking it; reservations held by carts are kept
+    @PutMapping("/{id}/stock")
+    public ResponseEntity<StockDTO> setStock(@PathVariable Long id, @RequestBody StockDTO stockDTO) {
+        return ResponseEntity.ok(stockService.setAvailable(id, stockDTO.getAvailable()));
     }
 
     // Get all available categories
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getCategories() {
+    public ResponseEntity<List<String>> getCategories(WebRequest webRequest) {
+        String etag = WireFormat.of(webRequest).etag(catalogVersion.current());
+        if (webRequest.checkNotModified(etag)) {
+            return WireFormat.notModified();
+        }
+
         List<String> categories = productService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().eTag(etag).body(categories);
+    }
+
+    // Get every category with its product count, for facet navigation
+    @GetMapping("/categories/facets")
+    public ResponseEntity<List<CategoryDTO>> getCategoryFacets(WebRequest webRequest) {
+        String etag = WireFormat.of(webRequest).etag(catalogVersion.current());
+        if (webRequest.checkNotModified(etag)) {
+            return WireFormat.notModified();
+        }
+
+        List<CategoryDTO> facets = categoryService.getCategories().stream()
+                .map(category -> new CategoryDTO(category.getName(), category.getProductCount()))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok().eTag(etag).body(facets);
     }
 
     // Get products by category with optional sorting and limiting
     @GetMapping("/category/{category}")
+    @RateLimitCost(10)
     public ResponseEntity<List<ProductDTO>> getProductsByCategory(
             @PathVariable String category,
             @RequestParam(required = false) Integer limit,
-            @RequestParam(required = false) String sort
+            @RequestParam(required = false) String sort,
+            WebRequest webRequest
     ) {
-        List<Product> products = productService.getProductsByCategory(category);
-
-        if ("desc".equalsIgnoreCase(sort)) {
-            products.sort((a, b) -> b.getId().compareTo(a.getId()));
-        } else if ("asc".equalsIgnoreCase(sort)) {
-            products.sort((a, b) -> a.getId().compareTo(b.getId()));
+        String etag = WireFormat.of(webRequest).etag(catalogVersion.current());
+        if (webRequest.checkNotModified(etag)) {
+            return WireFormat.notModified();
         }
 
-        if (limit != null && limit > 0) {
-            products = products.stream().limit(limit).collect(Collectors.toList());
-        }
+        List<ProductDTO> productDTOs = productService.getProducts(category, null, sort, limit);
 
-        List<ProductDTO> productDTOs = products.stream()
-                .map(productMapper::toDto)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(productDTOs);
+        return ResponseEntity.ok().eTag(etag).body(productDTOs);
     }
 
     // Create one or multiple products
     @PostMapping
+    @RateLimitCost(5)
     public ResponseEntity<List<ProductDTO>> createProducts(@RequestBody List<ProductDTO> productDTOs) {
         List<Product> products = productDTOs.stream()
                 .map(productMapper::toEntity)
@@ -133,6 +252,20 @@ public class ProductController {
         return ResponseEntity.ok(createdProductDTOs);
     }
 
+    // Bulk import products from an NDJSON or CSV body, streamed and committed in chunks
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @RateLimitCost(50)
+    public ResponseEntity<ImportResultDTO> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request
+    ) throws IOException {
+        ProductImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format));
+    }
+
     // Update a product
     @PutMapping("/{id}")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @RequestBody ProductDTO productDTO) {
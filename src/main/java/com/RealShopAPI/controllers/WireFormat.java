@@ -0,0 +1,63 @@
+package com.RealShopAPI.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Representation negotiated for a response body (see WireFormatConfig), resolved from the Accept header
+ * before the body exists, so validators can be checked first. Each format has its own entity tag:
+ * the same version is a different byte sequence in JSON, Smile and CBOR.
+ */
+enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, ""),
+    SMILE(MediaType.valueOf("application/x-jackson-smile"), "-smile"),
+    CBOR(MediaType.APPLICATION_CBOR, "-cbor");
+
+    private final MediaType mediaType;
+    private final String tagSuffix;
+
+    WireFormat(MediaType mediaType, String tagSuffix) {
+        this.mediaType = mediaType;
+        this.tagSuffix = tagSuffix;
+    }
+
+    // The format the message converters will pick: the first one the most preferred accepted type
+    // covers, JSON for wildcards, a missing or an unparsable header
+    static WireFormat of(WebRequest request) {
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(Arrays.asList(accept));
+        } catch (InvalidMediaTypeException ex) {
+            return JSON;
+        }
+        return accepted.stream()
+                .filter(mediaType -> mediaType.getQualityValue() > 0)
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .flatMap(mediaType -> Arrays.stream(values()).filter(format -> mediaType.includes(format.mediaType)))
+                .findFirst()
+                .orElse(JSON);
+    }
+
+    // Strong tag for the given unquoted version in this format, e.g. "1f-3-smile"
+    String etag(String version) {
+        return "\"" + version + tagSuffix + "\"";
+    }
+
+    // 304 for a negotiated representation; it varies by Accept like the full response would
+    static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+    }
+}
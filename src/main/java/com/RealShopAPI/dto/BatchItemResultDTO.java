@@ -0,0 +1,40 @@
+package com.RealShopAPI.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.function.Function;
+
+// Outcome of one id in a batch request; item is set for successful gets and updates
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultDTO<T> {
+
+    public enum Status { OK, NOT_FOUND, INVALID }
+
+    private Long id;
+    private Status status;
+    private String message;
+    private T item;
+
+    public static <T> BatchItemResultDTO<T> ok(Long id, T item) {
+        return new BatchItemResultDTO<>(id, Status.OK, null, item);
+    }
+
+    public static <T> BatchItemResultDTO<T> notFound(Long id) {
+        return new BatchItemResultDTO<>(id, Status.NOT_FOUND, null, null);
+    }
+
+    public static <T> BatchItemResultDTO<T> invalid(Long id, String message) {
+        return new BatchItemResultDTO<>(id, Status.INVALID, message, null);
+    }
+
+    // Converts the item while keeping the outcome
+    public <R> BatchItemResultDTO<R> map(Function<? super T, ? extends R> mapper) {
+        return new BatchItemResultDTO<>(id, status, message, item != null ? mapper.apply(item) : null);
+    }
+}
@@ -1,19 +1,30 @@
 package com.RealShopAPI.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class CartDTO {
 
     private Long id;
     private Long userId;
     private LocalDateTime createdAt; // Use LocalDateTime for date
     private List<CartItemDTO> products;
+    private BigDecimal total; // Only for priced carts (?expand=products)
+
+    public CartDTO(Long id, Long userId, LocalDateTime createdAt, List<CartItemDTO> products) {
+        this.id = id;
+        this.userId = userId;
+        this.createdAt = createdAt;
+        this.products = products;
+    }
 }
@@ -0,0 +1,17 @@
+package com.RealShopAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartDailyStatsDTO {
+
+    private LocalDate day;
+    private long carts;
+    private long items; // total quantity in carts created that day
+}
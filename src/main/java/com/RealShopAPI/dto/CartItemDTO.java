@@ -1,14 +1,28 @@
 package com.RealShopAPI.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class CartItemDTO {
 
     private Long productId;
     private int quantity;
+
+    // Filled in only for priced carts (?expand=products)
+    private String title;
+    private BigDecimal unitPrice;
+    private BigDecimal lineTotal;
+
+    public CartItemDTO(Long productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
 }
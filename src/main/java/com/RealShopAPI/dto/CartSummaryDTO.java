@@ -0,0 +1,19 @@
+package com.RealShopAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartSummaryDTO {
+
+    private LocalDate startdate;
+    private LocalDate enddate;
+    private long carts;
+    private long items;
+    private double averageItemsPerCart;
+}
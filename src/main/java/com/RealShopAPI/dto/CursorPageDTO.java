@@ -0,0 +1,22 @@
+package com.RealShopAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDTO<T> {
+
+    private List<T> items;
+    private String nextCursor; // null when there are no more rows
+
+    // Converts the items while keeping the cursor
+    public <R> CursorPageDTO<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPageDTO<>(items.stream().<R>map(mapper).toList(), nextCursor);
+    }
+}
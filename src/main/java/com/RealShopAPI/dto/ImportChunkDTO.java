@@ -0,0 +1,18 @@
+package com.RealShopAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportChunkDTO {
+
+    private int chunk;
+    private int imported;
+    private int failed;
+    private List<String> errors; // capped, see ProductImportService.MAX_ERRORS_PER_CHUNK
+}
@@ -0,0 +1,18 @@
+package com.RealShopAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportResultDTO {
+
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private List<ImportChunkDTO> chunks;
+}
@@ -0,0 +1,14 @@
+package com.RealShopAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockDTO {
+    private Long productId;
+    private Long available;
+    private Long reserved;
+}
@@ -0,0 +1,52 @@
+package com.RealShopAPI.events;
+
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.models.CartItem;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Net effect of a single cart write, attributed to the day the cart was created:
+ * cartDelta is +1 for a new cart, -1 for a deleted one and 0 otherwise, quantityDeltas
+ * holds the change in quantity per product id.
+ */
+public record CartChange(Long cartId, LocalDate day, int cartDelta, Map<Long, Integer> quantityDeltas) {
+
+    public static CartChange created(Cart cart) {
+        return new CartChange(cart.getId(), day(cart), 1, quantities(cart));
+    }
+
+    public static CartChange updated(Cart cart, Map<Long, Integer> previousQuantities) {
+        Map<Long, Integer> deltas = new HashMap<>(quantities(cart));
+        previousQuantities.forEach((productId, quantity) -> deltas.merge(productId, -quantity, Integer::sum));
+        deltas.values().removeIf(delta -> delta == 0);
+        return new CartChange(cart.getId(), day(cart), 0, deltas);
+    }
+
+    public static CartChange deleted(Cart cart) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        quantities(cart).forEach((productId, quantity) -> deltas.put(productId, -quantity));
+        return new CartChange(cart.getId(), day(cart), -1, deltas);
+    }
+
+    // Quantity per product id currently in the cart
+    public static Map<Long, Integer> quantities(Cart cart) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartItem item : cart.getCartItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    public boolean isEmpty() {
+        return cartDelta == 0 && quantityDeltas.isEmpty();
+    }
+
+    private static LocalDate day(Cart cart) {
+        LocalDateTime createdAt = cart.getCreatedAt();
+        return createdAt != null ? createdAt.toLocalDate() : LocalDate.now();
+    }
+}
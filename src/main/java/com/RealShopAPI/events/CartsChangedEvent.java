@@ -0,0 +1,14 @@
+package com.RealShopAPI.events;
+
+import java.util.List;
+
+/**
+ * Published inside the writing transaction whenever carts are created, changed or deleted,
+ * including changes persisted by the write-behind flusher.
+ */
+public record CartsChangedEvent(List<CartChange> changes) {
+
+    public static CartsChangedEvent of(CartChange change) {
+        return new CartsChangedEvent(List.of(change));
+    }
+}
@@ -0,0 +1,31 @@
+package com.RealShopAPI.events;
+
+import com.RealShopAPI.models.Product;
+
+/**
+ * A single product write. previousCategory is null for a newly created product,
+ * product is null for a deleted one.
+ */
+public record ProductChange(Long id, String previousCategory, Product product) {
+
+    public static ProductChange created(Product product) {
+        return new ProductChange(product.getId(), null, product);
+    }
+
+    public static ProductChange updated(String previousCategory, Product product) {
+        return new ProductChange(product.getId(), previousCategory, product);
+    }
+
+    public static ProductChange deleted(Long id, String previousCategory) {
+        return new ProductChange(id, previousCategory, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+
+    // Category after the write, or null when the product was deleted
+    public String category() {
+        return product != null ? product.getCategory() : null;
+    }
+}
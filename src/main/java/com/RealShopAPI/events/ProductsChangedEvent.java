@@ -0,0 +1,14 @@
+package com.RealShopAPI.events;
+
+import java.util.List;
+
+/**
+ * Published by ProductService whenever products are created, updated or deleted,
+ * so that derived in-memory state (caches, indexes) can follow the catalog.
+ */
+public record ProductsChangedEvent(List<ProductChange> changes) {
+
+    public static ProductsChangedEvent of(ProductChange change) {
+        return new ProductsChangedEvent(List.of(change));
+    }
+}
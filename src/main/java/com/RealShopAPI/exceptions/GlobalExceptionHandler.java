@@ -1,5 +1,7 @@
 package com.RealShopAPI.exceptions;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -25,4 +27,68 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleInvalidUserIdException(InvalidUserIdException ex) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
+
+    // Handles InvalidCartItemException and returns a response with status BAD_REQUEST
+    @ExceptionHandler(InvalidCartItemException.class)
+    public ResponseEntity<String> handleInvalidCartItemException(InvalidCartItemException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Handles OptimisticLockingFailureException (retries exhausted) and returns a response with status CONFLICT
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return new ResponseEntity<>("The resource was modified concurrently, please retry.", HttpStatus.CONFLICT);
+    }
+
+    // Handles InvalidCursorException and returns a response with status BAD_REQUEST
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Handles InvalidDateRangeException and returns a response with status BAD_REQUEST
+    @ExceptionHandler(InvalidDateRangeException.class)
+    public ResponseEntity<String> handleInvalidDateRangeException(InvalidDateRangeException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Handles InvalidPriceRangeException and returns a response with status BAD_REQUEST
+    @ExceptionHandler(InvalidPriceRangeException.class)
+    public ResponseEntity<String> handleInvalidPriceRangeException(InvalidPriceRangeException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Handles InvalidBatchException and returns a response with status BAD_REQUEST
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<String> handleInvalidBatchException(InvalidBatchException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Handles InsufficientStockException and returns a response with status CONFLICT
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<String> handleInsufficientStockException(InsufficientStockException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    // Handles InvalidStockException and returns a response with status BAD_REQUEST
+    @ExceptionHandler(InvalidStockException.class)
+    public ResponseEntity<String> handleInvalidStockException(InvalidStockException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Handles RateLimitExceededException and returns a response with status TOO_MANY_REQUESTS
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<String> handleRateLimitExceededException(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    // Handles ServiceOverloadedException and returns a response with status SERVICE_UNAVAILABLE
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<String> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
 }
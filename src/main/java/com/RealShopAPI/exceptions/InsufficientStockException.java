@@ -0,0 +1,8 @@
+package com.RealShopAPI.exceptions;
+
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
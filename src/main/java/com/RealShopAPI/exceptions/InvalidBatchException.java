@@ -0,0 +1,8 @@
+package com.RealShopAPI.exceptions;
+
+public class InvalidBatchException extends RuntimeException {
+
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
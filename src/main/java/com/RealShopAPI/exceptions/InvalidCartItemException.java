@@ -0,0 +1,8 @@
+package com.RealShopAPI.exceptions;
+
+public class InvalidCartItemException extends RuntimeException {
+
+    public InvalidCartItemException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.RealShopAPI.exceptions;
+
+public class InvalidDateRangeException extends RuntimeException {
+
+    public InvalidDateRangeException(String message) {
+        super(message);
+    }
+}
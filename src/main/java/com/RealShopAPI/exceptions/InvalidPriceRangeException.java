@@ -0,0 +1,8 @@
+package com.RealShopAPI.exceptions;
+
+public class InvalidPriceRangeException extends RuntimeException {
+
+    public InvalidPriceRangeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.RealShopAPI.exceptions;
+
+public class InvalidStockException extends RuntimeException {
+
+    public InvalidStockException(String message) {
+        super(message);
+    }
+}
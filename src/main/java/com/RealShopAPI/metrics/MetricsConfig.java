@@ -0,0 +1,58 @@
+package com.RealShopAPI.metrics;
+
+import com.RealShopAPI.config.BulkheadDataSource;
+import com.RealShopAPI.config.VirtualThreadPinningMonitor;
+import com.RealShopAPI.services.ProductPriceIndex;
+import com.RealShopAPI.services.ProductSearchIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Application-specific meters. Endpoint latency (http.server.requests), repository method timings
+ * (spring.data.repository.invocations), Hikari pool wait (hikaricp.connections.acquire), Hibernate
+ * statistics and cache stats come from Spring Boot's auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    @Bean
+    public MeterBinder realShopMeters(DataSource dataSource, ProductSearchIndex productSearchIndex,
+                                      ProductPriceIndex productPriceIndex,
+                                      ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor) {
+        return registry -> {
+            Gauge.builder("realshop.search.index.products", productSearchIndex, ProductSearchIndex::size)
+                    .description("Products in the in-memory search index")
+                    .register(registry);
+            Gauge.builder("realshop.price.index.products", productPriceIndex, ProductPriceIndex::size)
+                    .description("Products in the in-memory price index")
+                    .register(registry);
+
+            if (dataSource instanceof BulkheadDataSource bulkhead) {
+                Gauge.builder("realshop.db.bulkhead.available", bulkhead, BulkheadDataSource::getAvailablePermits)
+                        .description("Free connection permits in the database bulkhead")
+                        .register(registry);
+                Gauge.builder("realshop.db.bulkhead.waiting", bulkhead, BulkheadDataSource::getQueueLength)
+                        .description("Threads waiting for a connection permit")
+                        .register(registry);
+            }
+
+            pinningMonitor.ifAvailable(monitor ->
+                    FunctionCounter.builder("realshop.virtual.threads.pinned", monitor, VirtualThreadPinningMonitor::getPinnedEvents)
+                            .description("Virtual threads pinned longer than the configured threshold")
+                            .register(registry));
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.RealShopAPI.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a request is being counted.
+ * Registered as Hibernate's statement inspector; it never rewrites the SQL.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    // Returns the number of statements since start() and stops counting
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
@@ -3,6 +3,7 @@ package com.RealShopAPI.models;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,7 +14,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", indexes = {
+        @Index(name = "idx_carts_user_id", columnList = "user_id"),
+        @Index(name = "idx_carts_created_at", columnList = "created_at, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -34,4 +38,9 @@ public class Cart {
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+
+    // Optimistic concurrency: bumped on every cart write, including item-only changes
+    @Version
+    @ColumnDefault("0")
+    private Long version;
 }
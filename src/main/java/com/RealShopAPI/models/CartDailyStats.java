@@ -0,0 +1,38 @@
+package com.RealShopAPI.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+/**
+ * Number of existing carts created on a day. Maintained by CartAnalyticsService in the same
+ * transaction as the cart writes.
+ */
+@Entity
+@Table(name = "cart_daily_stats", uniqueConstraints = @UniqueConstraint(name = "uk_cart_daily_stats_day", columnNames = "stats_date"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // DAY is a reserved word in H2
+    @NotNull
+    @Column(name = "stats_date")
+    private LocalDate day;
+
+    private long carts;
+
+    public CartDailyStats(LocalDate day, long carts) {
+        this.day = day;
+        this.carts = carts;
+    }
+}
@@ -6,7 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = @Index(name = "idx_cart_items_cart_id", columnList = "cart_id, product_id"))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
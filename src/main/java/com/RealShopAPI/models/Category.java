@@ -0,0 +1,34 @@
+package com.RealShopAPI.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Materialized category index: one row per product category with the number of products in it.
+ * Maintained by CategoryService in the same transaction as the product writes.
+ */
+@Entity
+@Table(name = "categories", uniqueConstraints = @UniqueConstraint(name = "uk_categories_name", columnNames = "name"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Category {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private String name;
+
+    private long productCount;
+
+    public Category(String name, long productCount) {
+        this.name = name;
+        this.productCount = productCount;
+    }
+}
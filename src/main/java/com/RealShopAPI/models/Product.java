@@ -14,15 +14,25 @@ import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category", columnList = "category, id"),
+        @Index(name = "idx_products_price", columnList = "price, id"),
+        @Index(name = "idx_products_title", columnList = "title, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Product {
 
+    // Ids handed out per sequence value; must match the INCREMENT BY of products_seq
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final String ID_SEQUENCE = "products_seq";
+
+    // Sequence ids let Hibernate batch inserts and take a block of ids per round trip
     @Setter(AccessLevel.NONE)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -0,0 +1,42 @@
+package com.RealShopAPI.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+/**
+ * Total quantity of a product in existing carts created on a day. Maintained by
+ * CartAnalyticsService in the same transaction as the cart writes.
+ */
+@Entity
+@Table(name = "product_daily_stats", uniqueConstraints = @UniqueConstraint(name = "uk_product_daily_stats_day_product", columnNames = {"stats_date", "product_id"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // DAY is a reserved word in H2
+    @NotNull
+    @Column(name = "stats_date")
+    private LocalDate day;
+
+    @NotNull
+    private Long productId;
+
+    private long quantity;
+
+    public ProductDailyStats(LocalDate day, Long productId, long quantity) {
+        this.day = day;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+}
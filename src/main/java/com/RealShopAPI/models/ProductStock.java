@@ -0,0 +1,38 @@
+package com.RealShopAPI.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Stock of a product: units that can still be put in carts and units reserved by carts.
+ * Products without a row are not stock-tracked. Maintained by StockService with conditional
+ * UPDATEs, never by loading and saving the entity.
+ */
+@Entity
+@Table(name = "product_stock", uniqueConstraints = @UniqueConstraint(name = "uk_product_stock_product", columnNames = "product_id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private Long productId;
+
+    private long available;
+
+    private long reserved;
+
+    public ProductStock(Long productId, long available, long reserved) {
+        this.productId = productId;
+        this.available = available;
+        this.reserved = reserved;
+    }
+}
@@ -0,0 +1,49 @@
+package com.RealShopAPI.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Units of a stock-tracked product held for a cart. Released when the cart line shrinks or the
+ * cart is deleted, or when the cart has not changed for the reservation TTL.
+ */
+@Entity
+@Table(name = "stock_reservations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_reservations_cart_product", columnNames = {"cart_id", "product_id"}),
+        indexes = {
+                @Index(name = "idx_stock_reservations_expires_at", columnList = "expires_at, id"),
+                @Index(name = "idx_stock_reservations_product_id", columnList = "product_id")
+        })
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private Long cartId;
+
+    @NotNull
+    private Long productId;
+
+    private long quantity;
+
+    @NotNull
+    private LocalDateTime expiresAt;
+
+    public StockReservation(Long cartId, Long productId, long quantity, LocalDateTime expiresAt) {
+        this.cartId = cartId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+    }
+}
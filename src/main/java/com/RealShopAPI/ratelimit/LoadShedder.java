@@ -0,0 +1,64 @@
+package com.RealShopAPI.ratelimit;
+
+import com.RealShopAPI.config.BulkheadDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether the service is overloaded from two signals: threads waiting for a database
+ * connection (Hikari pool plus the virtual-thread bulkhead, if any) and a moving average of
+ * request latency. Under load only expensive requests are shed, so cheap ones keep flowing and
+ * keep the latency average current; once the wait queue reaches twice its limit everything is shed.
+ */
+public class LoadShedder {
+
+    private final HikariDataSource hikariDataSource;
+    private final BulkheadDataSource bulkhead;
+    private final long latencyThresholdNanos;
+    private final int maxPoolWaiting;
+    private final AtomicLong averageLatencyNanos = new AtomicLong();
+
+    public LoadShedder(DataSource dataSource, Duration latencyThreshold, int maxPoolWaiting) {
+        this.hikariDataSource = unwrapHikari(dataSource);
+        this.bulkhead = dataSource instanceof BulkheadDataSource bulkheadDataSource ? bulkheadDataSource : null;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxPoolWaiting = maxPoolWaiting;
+    }
+
+    public boolean shouldShed(int cost) {
+        int waiting = getPoolWaiting();
+        if (waiting >= 2 * maxPoolWaiting) {
+            return true;
+        }
+        return cost > 1 && (waiting >= maxPoolWaiting || averageLatencyNanos.get() > latencyThresholdNanos);
+    }
+
+    // Exponentially weighted moving average with weight 1/8 for the newest sample
+    public void recordLatency(long nanos) {
+        averageLatencyNanos.accumulateAndGet(nanos, (average, sample) -> average + (sample - average) / 8);
+    }
+
+    public long getAverageLatencyNanos() {
+        return averageLatencyNanos.get();
+    }
+
+    public int getPoolWaiting() {
+        int waiting = bulkhead != null ? bulkhead.getQueueLength() : 0;
+        // The pool MXBean only exists once the pool has started
+        HikariPoolMXBean pool = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+        return pool != null ? waiting + pool.getThreadsAwaitingConnection() : waiting;
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+}
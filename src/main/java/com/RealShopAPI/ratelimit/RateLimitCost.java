@@ -0,0 +1,17 @@
+package com.RealShopAPI.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Tokens a call to the annotated handler method takes from the client's bucket.
+ * Handlers without it cost one token.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimitCost {
+
+    int value();
+}
@@ -0,0 +1,92 @@
+package com.RealShopAPI.ratelimit;
+
+import com.RealShopAPI.exceptions.RateLimitExceededException;
+import com.RealShopAPI.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits a request to its controller only if the client has enough tokens for the endpoint's
+ * {@link RateLimitCost} (429 otherwise) and the service is not shedding load (503 otherwise).
+ * Clients are identified by their API key header when it holds an issued key, otherwise by remote
+ * address, so rotating made-up keys does not buy a fresh bucket; behind a proxy that address comes
+ * from X-Forwarded-For through server.forward-headers-strategy. Only the
+ * initial dispatch is checked; async and error dispatches of an admitted request pass through.
+ */
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".start";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final String clientHeader;
+    private final Set<String> apiKeys;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public RateLimitInterceptor(TokenBucketRateLimiter rateLimiter, LoadShedder loadShedder, String clientHeader,
+                                Set<String> apiKeys, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.clientHeader = clientHeader;
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.rateLimited = Counter.builder("realshop.requests.rejected")
+                .description("Requests rejected before reaching a controller")
+                .tag("reason", "rate-limit")
+                .register(meterRegistry);
+        this.shed = Counter.builder("realshop.requests.rejected")
+                .description("Requests rejected before reaching a controller")
+                .tag("reason", "overload")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RateLimitCost annotation = handlerMethod.getMethodAnnotation(RateLimitCost.class);
+        int cost = annotation != null ? annotation.value() : 1;
+
+        long waitNanos = rateLimiter.tryAcquire(clientKey(request), cost);
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            throw new RateLimitExceededException("Rate limit exceeded, please retry later.",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+        if (loadShedder.shouldShed(cost)) {
+            shed.increment();
+            throw new ServiceOverloadedException("The service is overloaded, please retry later.");
+        }
+
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    // Streaming responses complete asynchronously and are not part of the latency average
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.removeAttribute(START_ATTRIBUTE);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            loadShedder.recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    // Unknown keys are treated like no key at all
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(clientHeader);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+}
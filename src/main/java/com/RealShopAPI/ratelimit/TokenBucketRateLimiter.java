@@ -0,0 +1,58 @@
+package com.RealShopAPI.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets. Each bucket is a single AtomicLong holding the time at which it will
+ * be full again (the GCRA form of a token bucket), so taking tokens is one CAS with no lock and
+ * no allocation. Buckets live in a bounded Caffeine map and are dropped after being idle, by
+ * which time they would have refilled anyway.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long nanosPerToken;
+    private final int capacity;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(double tokensPerSecond, int capacity, long maxClients) {
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.capacity = capacity;
+        this.burstNanos = nanosPerToken * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(burstNanos).plusMinutes(1))
+                .build();
+    }
+
+    /**
+     * Takes cost tokens from the client's bucket. Returns 0 when they were taken, otherwise the
+     * nanoseconds until the bucket holds enough of them. Costs above the capacity are capped.
+     */
+    public long tryAcquire(String client, int cost) {
+        long now = System.nanoTime();
+        AtomicLong fullAt = buckets.get(client, key -> new AtomicLong(now));
+        long increment = nanosPerToken * Math.min(Math.max(cost, 1), capacity);
+
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - now > 0 ? current : now) + increment;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long getClients() {
+        return buckets.estimatedSize();
+    }
+}
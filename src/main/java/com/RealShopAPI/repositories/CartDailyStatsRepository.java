@@ -0,0 +1,25 @@
+package com.RealShopAPI.repositories;
+
+import com.RealShopAPI.models.CartDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CartDailyStatsRepository extends JpaRepository<CartDailyStats, Long> {
+
+    List<CartDailyStats> findByDayBetweenOrderByDayAsc(LocalDate start, LocalDate end);
+
+    // Atomically adds delta to a day's cart count; returns 0 if the day row does not exist
+    @Modifying
+    @Query("UPDATE CartDailyStats s SET s.carts = s.carts + :delta WHERE s.day = :day")
+    int adjustCarts(@Param("day") LocalDate day, @Param("delta") long delta);
+
+    // Creates the day row with a zero count unless it exists; a concurrent insert of the same day is waited for
+    @Modifying
+    @Query(value = "MERGE INTO cart_daily_stats (stats_date) KEY (stats_date) VALUES (:day)", nativeQuery = true)
+    int insertIfAbsent(@Param("day") LocalDate day);
+}
@@ -1,22 +1,69 @@
 package com.RealShopAPI.repositories;
 
 import com.RealShopAPI.models.Cart;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
     List<Cart> findByUserId(Long userId);
 
-    @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems WHERE c.id = :id")
-    Optional<Cart> findByIdWithItems(Long id);
+    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems WHERE c.id = :id")
+    Optional<Cart> findByIdWithItems(@Param("id") Long id);
+
+    // Current version of a cart, for conditional GETs that should not load the cart
+    @Query("SELECT c.version FROM Cart c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Loads a page of carts together with their items in a single query
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.cartItems WHERE c.id IN :ids")
+    List<Cart> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Stream cart ids in id order; needs an open transaction. One query per combination of creation date
+    // bounds, so each filtered variant seeks the created-at index instead of checking optional parameters
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id FROM Cart c ORDER BY c.id")
+    Stream<Long> streamIds();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id FROM Cart c WHERE c.createdAt >= :startDate AND c.createdAt <= :endDate ORDER BY c.id")
+    Stream<Long> streamIdsCreatedBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id FROM Cart c WHERE c.createdAt >= :startDate ORDER BY c.id")
+    Stream<Long> streamIdsCreatedSince(@Param("startDate") LocalDateTime startDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id FROM Cart c WHERE c.createdAt <= :endDate ORDER BY c.id")
+    Stream<Long> streamIdsCreatedUntil(@Param("endDate") LocalDateTime endDate);
 
     // New query to find carts within a date range
     Page<Cart> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    // Keyset (seek) queries on id; the Pageable only carries the row limit
+    List<Cart> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Cart> findByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
+
+    List<Cart> findByCreatedAtBetweenAndIdGreaterThanOrderByIdAsc(LocalDateTime startDate, LocalDateTime endDate, Long id, Pageable pageable);
+
+    List<Cart> findByCreatedAtBetweenAndIdLessThanOrderByIdDesc(LocalDateTime startDate, LocalDateTime endDate, Long id, Pageable pageable);
+
+    // Set-based delete of the items of many carts; the carts themselves go through deleteAllByIdInBatch
+    @Modifying
+    @Query("DELETE FROM CartItem i WHERE i.cart.id IN :cartIds")
+    int deleteItemsByCartIdIn(@Param("cartIds") Collection<Long> cartIds);
 }
@@ -0,0 +1,27 @@
+package com.RealShopAPI.repositories;
+
+import com.RealShopAPI.models.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    // Categories that currently hold products, by name
+    List<Category> findByProductCountGreaterThanOrderByNameAsc(long productCount);
+
+    boolean existsByNameAndProductCountGreaterThan(String name, long productCount);
+
+    // Atomically adds delta to a category's product count; returns 0 if the category row does not exist
+    @Modifying
+    @Query("UPDATE Category c SET c.productCount = c.productCount + :delta WHERE c.name = :name")
+    int adjustProductCount(@Param("name") String name, @Param("delta") long delta);
+
+    // Creates the category row with a zero count unless it exists; a concurrent insert of the same name is waited for
+    @Modifying
+    @Query(value = "MERGE INTO categories (name) KEY (name) VALUES (:name)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+}
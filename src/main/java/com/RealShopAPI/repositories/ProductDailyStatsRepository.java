@@ -0,0 +1,34 @@
+package com.RealShopAPI.repositories;
+
+import com.RealShopAPI.models.ProductDailyStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ProductDailyStatsRepository extends JpaRepository<ProductDailyStats, Long> {
+
+    // Atomically adds delta to a product's quantity on a day; returns 0 if the row does not exist
+    @Modifying
+    @Query("UPDATE ProductDailyStats s SET s.quantity = s.quantity + :delta WHERE s.day = :day AND s.productId = :productId")
+    int adjustQuantity(@Param("day") LocalDate day, @Param("productId") Long productId, @Param("delta") long delta);
+
+    // Total quantity in carts per creation day: [day, quantity]
+    @Query("SELECT s.day, SUM(s.quantity) FROM ProductDailyStats s WHERE s.day BETWEEN :start AND :end GROUP BY s.day")
+    List<Object[]> sumQuantityByDay(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Products with the highest total quantity in carts created in the range: [productId, quantity]
+    @Query("SELECT s.productId, SUM(s.quantity) FROM ProductDailyStats s WHERE s.day BETWEEN :start AND :end "
+            + "GROUP BY s.productId HAVING SUM(s.quantity) > 0 ORDER BY SUM(s.quantity) DESC, s.productId")
+    List<Object[]> findTopProducts(@Param("start") LocalDate start, @Param("end") LocalDate end, Pageable pageable);
+
+    // Creates the (day, product) row with a zero quantity unless it exists; a concurrent insert is waited for
+    @Modifying
+    @Query(value = "MERGE INTO product_daily_stats (stats_date, product_id) KEY (stats_date, product_id) VALUES (:day, :productId)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("day") LocalDate day, @Param("productId") Long productId);
+}
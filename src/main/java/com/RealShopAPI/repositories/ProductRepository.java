@@ -1,17 +1,49 @@
 package com.RealShopAPI.repositories;
 
+import com.RealShopAPI.dto.ProductDTO;
 import com.RealShopAPI.models.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductRepositoryCustom {
 
     // Find products by category
     List<Product> findByCategory(String category);
 
+    // Read-only listings projected straight into DTOs, so no managed entities are built
+
+    // Find a bounded, sorted page of all products as DTOs (no count query)
+    @Query("SELECT new com.RealShopAPI.dto.ProductDTO(p.id, p.title, p.price, p.description, p.image, p.category) FROM Product p")
+    List<ProductDTO> findAllProjectedBy(Pageable pageable);
+
+    // Find a bounded, sorted page of products in a category as DTOs (no count query)
+    @Query("SELECT new com.RealShopAPI.dto.ProductDTO(p.id, p.title, p.price, p.description, p.image, p.category) "
+            + "FROM Product p WHERE p.category = :category")
+    List<ProductDTO> findProjectedByCategory(@Param("category") String category, Pageable pageable);
+
+    // Stream products as DTOs in id order, fetched from the driver in batches; needs an open transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.RealShopAPI.dto.ProductDTO(p.id, p.title, p.price, p.description, p.image, p.category) "
+            + "FROM Product p ORDER BY p.id")
+    Stream<ProductDTO> streamAllProjected();
+
+    // Same for one category, read from the category index in id order
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.RealShopAPI.dto.ProductDTO(p.id, p.title, p.price, p.description, p.image, p.category) "
+            + "FROM Product p WHERE p.category = :category ORDER BY p.id")
+    Stream<ProductDTO> streamProjectedByCategory(@Param("category") String category);
+
     // Find products by title containing a specific string (case-insensitive search)
     List<Product> findByTitleContainingIgnoreCase(String title);
 
@@ -22,4 +54,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Find all distinct categories
     @Query("SELECT DISTINCT p.category FROM Product p")
     List<String> findDistinctCategories();
+
+    // Ids and categories of the given products, for batch deletes
+    @Query("SELECT p.id, p.category FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findCategoriesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,14 @@
+package com.RealShopAPI.repositories;
+
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.models.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    // Products matching the specification as DTOs, sorted and limited in the query
+    List<ProductDTO> findProjected(Specification<Product> spec, Sort sort, int limit);
+}
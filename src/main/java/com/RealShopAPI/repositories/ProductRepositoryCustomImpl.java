@@ -0,0 +1,45 @@
+package com.RealShopAPI.repositories;
+
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.models.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Criteria-based DTO projections, for queries built from Specifications (e.g. keyset pages).
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public ProductRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDTO> findProjected(Specification<Product> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDTO> query = cb.createQuery(ProductDTO.class);
+        Root<Product> root = query.from(Product.class);
+
+        query.select(cb.construct(ProductDTO.class, root.get("id"), root.get("title"), root.get("price"),
+                root.get("description"), root.get("image"), root.get("category")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
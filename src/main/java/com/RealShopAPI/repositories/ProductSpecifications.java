@@ -0,0 +1,54 @@
+package com.RealShopAPI.repositories;
+
+import com.RealShopAPI.models.Product;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    // Products in the given category; matches everything when category is null
+    public static Specification<Product> inCategory(String category) {
+        return (root, query, cb) -> category == null ? null : cb.equal(root.get("category"), category);
+    }
+
+    // Products priced within [min, max]; a null bound is open
+    public static Specification<Product> priceBetween(Double min, Double max) {
+        return (root, query, cb) -> {
+            Path<Double> price = root.get("price");
+            if (min == null && max == null) {
+                return null;
+            }
+            if (min == null) {
+                return cb.lessThanOrEqualTo(price, max);
+            }
+            return max == null ? cb.greaterThanOrEqualTo(price, min) : cb.between(price, min, max);
+        };
+    }
+
+    /**
+     * Seek predicate for keyset paging on (field, id): rows strictly after the given position
+     * in the given direction. When field is "id" the key is ignored. The redundant bound on the key
+     * alone is what lets the database seek into the (field, id) index instead of scanning it from the start.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Product> after(String field, Sort.Direction direction, Comparable key, Long id) {
+        return (root, query, cb) -> {
+            Path<Long> idPath = root.get("id");
+            Predicate idBeyond = direction.isAscending() ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+
+            if ("id".equals(field)) {
+                return idBeyond;
+            }
+
+            Path<Comparable> keyPath = root.get(field);
+            Predicate keyReached = direction.isAscending() ? cb.greaterThanOrEqualTo(keyPath, key) : cb.lessThanOrEqualTo(keyPath, key);
+            Predicate keyBeyond = direction.isAscending() ? cb.greaterThan(keyPath, key) : cb.lessThan(keyPath, key);
+            return cb.and(keyReached, cb.or(keyBeyond, cb.and(cb.equal(keyPath, key), idBeyond)));
+        };
+    }
+}
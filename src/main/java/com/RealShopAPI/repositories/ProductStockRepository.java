@@ -0,0 +1,46 @@
+package com.RealShopAPI.repositories;
+
+import com.RealShopAPI.models.ProductStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductStockRepository extends JpaRepository<ProductStock, Long> {
+
+    Optional<ProductStock> findByProductId(Long productId);
+
+    // Which of the given products are stock-tracked
+    @Query("SELECT s.productId FROM ProductStock s WHERE s.productId IN :productIds")
+    List<Long> findTrackedProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Moves quantity from available to reserved if enough is available; returns 0 otherwise
+    @Modifying
+    @Query("UPDATE ProductStock s SET s.available = s.available - :quantity, s.reserved = s.reserved + :quantity "
+            + "WHERE s.productId = :productId AND s.available >= :quantity")
+    int reserve(@Param("productId") Long productId, @Param("quantity") long quantity);
+
+    // Moves quantity from reserved back to available; returns 0 if not that much is reserved
+    @Modifying
+    @Query("UPDATE ProductStock s SET s.available = s.available + :quantity, s.reserved = s.reserved - :quantity "
+            + "WHERE s.productId = :productId AND s.reserved >= :quantity")
+    int release(@Param("productId") Long productId, @Param("quantity") long quantity);
+
+    // Sets the available count, leaving reservations alone; returns 0 if the product is not tracked
+    @Modifying
+    @Query("UPDATE ProductStock s SET s.available = :available WHERE s.productId = :productId")
+    int setAvailable(@Param("productId") Long productId, @Param("available") long available);
+
+    @Modifying
+    @Query("DELETE FROM ProductStock s WHERE s.productId IN :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Starts tracking a product with zero stock unless it is tracked; a concurrent insert is waited for
+    @Modifying
+    @Query(value = "MERGE INTO product_stock (product_id) KEY (product_id) VALUES (:productId)", nativeQuery = true)
+    int insertIfAbsent(@Param("productId") Long productId);
+}
@@ -0,0 +1,47 @@
+package com.RealShopAPI.repositories;
+
+import com.RealShopAPI.models.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Reserved quantities of the given carts: [cartId, productId, quantity]
+    @Query("SELECT r.cartId, r.productId, r.quantity FROM StockReservation r WHERE r.cartId IN :cartIds")
+    List<Object[]> findQuantitiesByCartIdIn(@Param("cartIds") Collection<Long> cartIds);
+
+    // Atomically adds delta to a cart's reservation of a product; returns 0 if there is none
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.quantity = r.quantity + :delta, r.expiresAt = :expiresAt "
+            + "WHERE r.cartId = :cartId AND r.productId = :productId")
+    int adjustQuantity(@Param("cartId") Long cartId, @Param("productId") Long productId,
+                       @Param("delta") long delta, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Pushes back the expiry of every reservation of a cart after it changed
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.expiresAt = :expiresAt WHERE r.cartId = :cartId")
+    int refreshExpiry(@Param("cartId") Long cartId, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.cartId = :cartId AND r.quantity <= 0")
+    int deleteEmpty(@Param("cartId") Long cartId);
+
+    @Query("SELECT r FROM StockReservation r WHERE r.expiresAt < :now ORDER BY r.expiresAt, r.id")
+    List<StockReservation> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Deletes an expired reservation unless its cart changed it since it was read; returns 0 then
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.id = :id AND r.quantity = :quantity AND r.expiresAt < :now")
+    int deleteExpired(@Param("id") Long id, @Param("quantity") long quantity, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.productId IN :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
@@ -0,0 +1,149 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.dto.CartDailyStatsDTO;
+import com.RealShopAPI.dto.CartSummaryDTO;
+import com.RealShopAPI.dto.TopProductDTO;
+import com.RealShopAPI.events.CartChange;
+import com.RealShopAPI.events.CartsChangedEvent;
+import com.RealShopAPI.exceptions.InvalidDateRangeException;
+import com.RealShopAPI.models.CartDailyStats;
+import com.RealShopAPI.repositories.CartDailyStatsRepository;
+import com.RealShopAPI.repositories.ProductDailyStatsRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cart analytics served from aggregate tables (cart_daily_stats, product_daily_stats) that are
+ * kept in step with every cart write, so dashboards never scan carts or cart_items.
+ * Carts and their items are counted on the day the cart was created. Existing carts are
+ * counted into the tables by migration V4.
+ */
+@Service
+public class CartAnalyticsService {
+
+    // Longest date range a single analytics request may cover
+    private static final int MAX_RANGE_DAYS = 366;
+
+    // Range used when no start date is given
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private final CartDailyStatsRepository cartDailyStatsRepository;
+    private final ProductDailyStatsRepository productDailyStatsRepository;
+
+    public CartAnalyticsService(CartDailyStatsRepository cartDailyStatsRepository,
+                                ProductDailyStatsRepository productDailyStatsRepository) {
+        this.cartDailyStatsRepository = cartDailyStatsRepository;
+        this.productDailyStatsRepository = productDailyStatsRepository;
+    }
+
+    /**
+     * Carts created and item quantities per day, for days with any activity, in day order.
+     */
+    @Transactional(readOnly = true)
+    public List<CartDailyStatsDTO> getDailyStats(LocalDate startdate, LocalDate enddate) {
+        LocalDate end = resolveEnd(enddate);
+        LocalDate start = resolveStart(startdate, end);
+
+        Map<LocalDate, CartDailyStatsDTO> days = new TreeMap<>();
+        for (CartDailyStats stats : cartDailyStatsRepository.findByDayBetweenOrderByDayAsc(start, end)) {
+            days.put(stats.getDay(), new CartDailyStatsDTO(stats.getDay(), stats.getCarts(), 0));
+        }
+        for (Object[] row : productDailyStatsRepository.sumQuantityByDay(start, end)) {
+            LocalDate day = (LocalDate) row[0];
+            days.computeIfAbsent(day, key -> new CartDailyStatsDTO(key, 0, 0))
+                    .setItems(((Number) row[1]).longValue());
+        }
+
+        return days.values().stream()
+                .filter(stats -> stats.getCarts() != 0 || stats.getItems() != 0)
+                .toList();
+    }
+
+    /**
+     * Total carts and items in the range and the average number of items per cart.
+     */
+    public CartSummaryDTO getSummary(LocalDate startdate, LocalDate enddate) {
+        LocalDate end = resolveEnd(enddate);
+        LocalDate start = resolveStart(startdate, end);
+
+        long carts = 0;
+        long items = 0;
+        for (CartDailyStatsDTO day : getDailyStats(start, end)) {
+            carts += day.getCarts();
+            items += day.getItems();
+        }
+        double average = carts > 0 ? (double) items / carts : 0;
+        return new CartSummaryDTO(start, end, carts, items, average);
+    }
+
+    /**
+     * Products with the highest total quantity in carts created in the range.
+     */
+    @Transactional(readOnly = true)
+    public List<TopProductDTO> getTopProducts(LocalDate startdate, LocalDate enddate, Integer limit) {
+        LocalDate end = resolveEnd(enddate);
+        LocalDate start = resolveStart(startdate, end);
+
+        return productDailyStatsRepository.findTopProducts(start, end, PageRequest.of(0, Math.min(Paging.resolveLimit(limit), 100)))
+                .stream()
+                .map(row -> new TopProductDTO((Long) row[0], ((Number) row[1]).longValue()))
+                .toList();
+    }
+
+    /**
+     * Applies the net effect of a batch of cart writes. Runs inside the writing transaction, so
+     * the aggregates commit or roll back together with the carts. Item-only changes touch only
+     * the affected product rows; rows are updated in (day, product) order to keep lock order
+     * consistent across writers.
+     */
+    @EventListener
+    @Transactional
+    public void onCartsChanged(CartsChangedEvent event) {
+        Map<LocalDate, Long> cartDeltas = new TreeMap<>();
+        Map<LocalDate, Map<Long, Long>> quantityDeltas = new TreeMap<>();
+        for (CartChange change : event.changes()) {
+            if (change.cartDelta() != 0) {
+                cartDeltas.merge(change.day(), (long) change.cartDelta(), Long::sum);
+            }
+            change.quantityDeltas().forEach((productId, delta) -> quantityDeltas
+                    .computeIfAbsent(change.day(), day -> new TreeMap<>())
+                    .merge(productId, (long) delta, Long::sum));
+        }
+
+        cartDeltas.forEach((day, delta) -> {
+            if (delta != 0 && cartDailyStatsRepository.adjustCarts(day, delta) == 0) {
+                cartDailyStatsRepository.insertIfAbsent(day);
+                cartDailyStatsRepository.adjustCarts(day, delta);
+            }
+        });
+        quantityDeltas.forEach((day, products) -> products.forEach((productId, delta) -> {
+            if (delta != 0 && productDailyStatsRepository.adjustQuantity(day, productId, delta) == 0) {
+                productDailyStatsRepository.insertIfAbsent(day, productId);
+                productDailyStatsRepository.adjustQuantity(day, productId, delta);
+            }
+        }));
+    }
+
+    private static LocalDate resolveEnd(LocalDate enddate) {
+        return enddate != null ? enddate : LocalDate.now();
+    }
+
+    private static LocalDate resolveStart(LocalDate startdate, LocalDate end) {
+        LocalDate start = startdate != null ? startdate : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new InvalidDateRangeException("startdate must not be after enddate.");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            throw new InvalidDateRangeException("The date range cannot exceed " + MAX_RANGE_DAYS + " days.");
+        }
+        return start;
+    }
+}
@@ -29,6 +29,7 @@ public class CartMapper {
         Cart cart = new Cart();
         cart.setId(cartDTO.getId());
         cart.setUserId(cartDTO.getUserId());
+        cartItems.forEach(cartItem -> cartItem.setCart(cart));
         cart.setCartItems(cartItems);
         return cart;
     }
@@ -0,0 +1,67 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.dto.CartDTO;
+import com.RealShopAPI.dto.CartItemDTO;
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.models.Product;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps carts to DTOs enriched with product titles, unit prices, line totals and a cart total.
+ * All products of a batch of carts are resolved together, so pricing a page of carts costs at
+ * most one product query no matter how many carts or lines it has.
+ */
+@Service
+public class CartPricingService {
+
+    private final ProductService productService;
+    private final CartMapper cartMapper;
+
+    public CartPricingService(ProductService productService, CartMapper cartMapper) {
+        this.productService = productService;
+        this.cartMapper = cartMapper;
+    }
+
+    public CartDTO toPricedDto(Cart cart) {
+        return toPricedDtos(List.of(cart)).getFirst();
+    }
+
+    /**
+     * Lines whose product no longer exists keep only productId and quantity and do not count
+     * towards the total.
+     */
+    public List<CartDTO> toPricedDtos(List<Cart> carts) {
+        Set<Long> productIds = new HashSet<>();
+        carts.forEach(cart -> cart.getCartItems().forEach(item -> productIds.add(item.getProductId())));
+        Map<Long, Product> products = productService.getProductsById(productIds);
+
+        return carts.stream()
+                .map(cart -> price(cartMapper.toDto(cart), products))
+                .collect(Collectors.toList());
+    }
+
+    private static CartDTO price(CartDTO cartDTO, Map<Long, Product> products) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartItemDTO item : cartDTO.getProducts()) {
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                continue;
+            }
+            BigDecimal unitPrice = BigDecimal.valueOf(product.getPrice());
+            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+            item.setTitle(product.getTitle());
+            item.setUnitPrice(unitPrice);
+            item.setLineTotal(lineTotal);
+            total = total.add(lineTotal);
+        }
+        cartDTO.setTotal(total);
+        return cartDTO;
+    }
+}
@@ -1,25 +1,70 @@
 package com.RealShopAPI.services;
 
+import com.RealShopAPI.dto.BatchItemResultDTO;
+import com.RealShopAPI.dto.CartDTO;
+import com.RealShopAPI.dto.CartItemDTO;
+import com.RealShopAPI.dto.CursorPageDTO;
+import com.RealShopAPI.events.CartChange;
+import com.RealShopAPI.events.CartsChangedEvent;
 import com.RealShopAPI.exceptions.CartNotFoundException;
+import com.RealShopAPI.exceptions.InvalidCartItemException;
 import com.RealShopAPI.exceptions.InvalidUserIdException;
 import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.models.CartItem;
 import com.RealShopAPI.repositories.CartRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CartService {
 
+    // Carts whose items are loaded together while streaming
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    // Attempts for a cart write that keeps losing optimistic-lock races
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+
     private final CartRepository cartRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CartWriteBehindStore writeBehindStore;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CartService(CartRepository cartRepository) {
+    public CartService(CartRepository cartRepository, EntityManager entityManager,
+                       TransactionTemplate transactionTemplate, CartWriteBehindStore writeBehindStore,
+                       ApplicationEventPublisher eventPublisher) {
         this.cartRepository = cartRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.writeBehindStore = writeBehindStore;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public List<Cart> getAllCarts(String limit, String sort, String startdate, String enddate) {
         // Create PageRequest for pagination and sorting
         PageRequest pageRequest = PageRequest.of(0, Integer.parseInt(limit));
@@ -29,39 +74,432 @@ public class CartService {
 
         // Apply filters
         if (start != null && end != null) {
-            return cartRepository.findByCreatedAtBetween(start, end, pageRequest).getContent();
+            return withItems(cartRepository.findByCreatedAtBetween(start, end, pageRequest).getContent());
         }
         // Apply sorting if needed
-        return cartRepository.findAll(pageRequest).getContent();
+        return withItems(cartRepository.findAll(pageRequest).getContent());
+    }
+
+    /**
+     * Fetches one keyset page of carts ordered by id, optionally restricted to a creation date range.
+     * The cursor is the nextCursor of the previous page, or null for the first page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<Cart> getCartPage(Integer limit, String sort, String startdate, String enddate, String cursor) {
+        Sort.Direction direction = "desc".equalsIgnoreCase(sort) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        int size = Paging.resolveLimit(limit);
+
+        Long afterId = direction.isAscending() ? 0L : Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            afterId = PageCursor.decode(cursor, "id", direction).id();
+        }
+
+        LocalDateTime start = (startdate != null) ? LocalDateTime.parse(startdate) : null;
+        LocalDateTime end = (enddate != null) ? LocalDateTime.parse(enddate) : null;
+
+        // Read one extra row to find out whether another page exists
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<Cart> rows;
+        if (start != null && end != null) {
+            rows = direction.isAscending()
+                    ? cartRepository.findByCreatedAtBetweenAndIdGreaterThanOrderByIdAsc(start, end, afterId, pageRequest)
+                    : cartRepository.findByCreatedAtBetweenAndIdLessThanOrderByIdDesc(start, end, afterId, pageRequest);
+        } else {
+            rows = direction.isAscending()
+                    ? cartRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageRequest)
+                    : cartRepository.findByIdLessThanOrderByIdDesc(afterId, pageRequest);
+        }
+
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(withItems(rows), null);
+        }
+
+        List<Cart> page = withItems(rows.subList(0, size));
+        // Taken from the id page, not the loaded carts: a cart deleted in between must not move the cursor
+        Long lastId = rows.get(size - 1).getId();
+        return new CursorPageDTO<>(page, new PageCursor("id", direction, lastId, String.valueOf(lastId)).encode());
+    }
+
+    /**
+     * Streams every cart (optionally within a creation date range) in id order to the given action.
+     * Cart ids are streamed from the database, and carts are loaded with their items in chunks;
+     * the persistence context is cleared after each chunk, so memory stays flat.
+     */
+    @Transactional(readOnly = true)
+    public void forEachCart(String startdate, String enddate, Consumer<Cart> action) {
+        LocalDateTime start = (startdate != null) ? LocalDateTime.parse(startdate) : null;
+        LocalDateTime end = (enddate != null) ? LocalDateTime.parse(enddate) : null;
+
+        List<Long> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        try (Stream<Long> ids = streamIds(start, end)) {
+            ids.forEach(id -> {
+                chunk.add(id);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    emitChunk(chunk, action);
+                }
+            });
+        }
+        emitChunk(chunk, action);
+    }
+
+    // Picks the stream query for the bounds that are set, so the filtered ones can use the created-at index
+    private Stream<Long> streamIds(LocalDateTime start, LocalDateTime end) {
+        if (start != null && end != null) {
+            return cartRepository.streamIdsCreatedBetween(start, end);
+        }
+        if (start != null) {
+            return cartRepository.streamIdsCreatedSince(start);
+        }
+        return end != null ? cartRepository.streamIdsCreatedUntil(end) : cartRepository.streamIds();
+    }
+
+    private void emitChunk(List<Long> ids, Consumer<Cart> action) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        cartRepository.findAllWithItemsByIdIn(ids).stream()
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .forEach(action);
+        ids.clear();
+        entityManager.clear();
+    }
+
+    /**
+     * Loads the items of a page of carts with one fetch-join query instead of one query per cart,
+     * keeping the page order. Carts come back fully initialized, so they can be mapped outside the transaction.
+     * Carts deleted between the two queries are left out.
+     */
+    private List<Cart> withItems(List<Cart> carts) {
+        if (carts.isEmpty()) {
+            return carts;
+        }
+
+        List<Long> ids = carts.stream().map(Cart::getId).toList();
+        Map<Long, Cart> loaded = cartRepository.findAllWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Cart::getId, Function.identity()));
+        return ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Returns the current version of a cart without loading it, or null while the cart has
+     * write-behind changes that are not persisted yet.
+     * Throws CartNotFoundException if the cart does not exist.
+     */
+    public Long getCartVersion(Long id) {
+        if (writeBehindStore.getPending(id) != null) {
+            return null;
+        }
+        return cartRepository.findVersionById(id)
+                .orElseThrow(() -> new CartNotFoundException("Cart not found with ID " + id));
     }
 
     public Cart getCartById(Long id) {
-        return cartRepository.findById(id)
+        Cart pending = writeBehindStore.getPending(id);
+        if (pending != null) {
+            return pending;
+        }
+        return cartRepository.findByIdWithItems(id)
                 .orElseThrow(() -> new CartNotFoundException("Cart not found with ID " + id));
     }
 
+    /**
+     * Fetches many carts with their items in one query. Carts with unflushed write-behind changes
+     * are returned in their pending state; unknown ids are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Cart> getCartsById(Collection<Long> ids) {
+        Map<Long, Cart> carts = new HashMap<>();
+        cartRepository.findAllWithItemsByIdIn(ids).forEach(cart -> carts.put(cart.getId(), cart));
+        for (Long id : ids) {
+            Cart pending = writeBehindStore.getPending(id);
+            if (pending != null) {
+                carts.put(id, pending);
+            }
+        }
+        return carts;
+    }
+
     @Transactional
     public Cart createCart(Cart cart) {
         if (cart.getUserId() == null || cart.getUserId() <= 0) {
             throw new InvalidUserIdException("User ID cannot be null or less than or equal to zero.");
         }
-        return cartRepository.save(cart);
+        Cart savedCart = cartRepository.save(cart);
+        eventPublisher.publishEvent(CartsChangedEvent.of(CartChange.created(savedCart)));
+        return savedCart;
     }
 
-    @Transactional
+    /**
+     * Replaces the items of a cart. Only the rows that differ are written: changed quantities
+     * are updated, missing products deleted and new products inserted.
+     */
     public Cart updateCart(Long id, Cart updatedCart) {
-        Cart existingCart = cartRepository.findById(id)
+        if (writeBehindStore.isEnabled()) {
+            return writeBehindStore.mutate(id, pending -> pending.withContents(updatedCart.getUserId(), updatedCart.getCartItems()));
+        }
+        return writeWithRetry(id, existingCart -> {
+            existingCart.setUserId(updatedCart.getUserId());
+            mergeItems(existingCart, updatedCart.getCartItems());
+        });
+    }
+
+    /**
+     * Adds a quantity of a product to a cart, creating the line if it does not exist yet.
+     */
+    public Cart addItem(Long id, Long productId, int quantity) {
+        if (productId == null || quantity <= 0) {
+            throw new InvalidCartItemException("Product ID is required and quantity must be greater than zero.");
+        }
+        if (writeBehindStore.isEnabled()) {
+            return writeBehindStore.mutate(id, pending -> pending.plusQuantity(productId, quantity));
+        }
+        return writeWithRetry(id, cart -> {
+            CartItem item = findItem(cart, productId);
+            if (item != null) {
+                item.setQuantity(item.getQuantity() + quantity);
+            } else {
+                cart.getCartItems().add(newItem(cart, productId, quantity));
+            }
+        });
+    }
+
+    /**
+     * Sets the quantity of a product in a cart; zero removes the line.
+     */
+    public Cart setItemQuantity(Long id, Long productId, int quantity) {
+        if (quantity < 0) {
+            throw new InvalidCartItemException("Quantity cannot be negative.");
+        }
+        if (writeBehindStore.isEnabled()) {
+            return writeBehindStore.mutate(id, pending -> pending.withQuantity(productId, quantity));
+        }
+        return writeWithRetry(id, cart -> {
+            CartItem item = findItem(cart, productId);
+            if (quantity == 0) {
+                cart.getCartItems().removeIf(existing -> existing == item);
+            } else if (item != null) {
+                item.setQuantity(quantity);
+            } else {
+                cart.getCartItems().add(newItem(cart, productId, quantity));
+            }
+        });
+    }
+
+    /**
+     * Removes a product from a cart; removing a product that is not in the cart is a no-op.
+     */
+    public Cart removeItem(Long id, Long productId) {
+        return setItemQuantity(id, productId, 0);
+    }
+
+    /**
+     * Applies many partial updates in one transaction: a non-null userId replaces the owner and a
+     * non-null products list replaces the items (only differing rows are written). Carts are loaded
+     * with one query. Invalid patches and unknown ids are skipped and reported.
+     */
+    public List<BatchItemResultDTO<Cart>> updateCarts(List<CartDTO> patches) {
+        Paging.resolveBatchIds(patches.stream().map(CartDTO::getId).toList());
+
+        if (writeBehindStore.isEnabled()) {
+            List<BatchItemResultDTO<Cart>> results = new ArrayList<>(patches.size());
+            for (CartDTO patch : patches) {
+                String problem = validatePatch(patch);
+                if (problem != null) {
+                    results.add(BatchItemResultDTO.invalid(patch.getId(), problem));
+                    continue;
+                }
+                try {
+                    Cart cart = writeBehindStore.mutate(patch.getId(), pending -> {
+                        PendingCart next = patch.getProducts() != null
+                                ? pending.withContents(pending.userId(), toCartItems(patch.getProducts()))
+                                : pending;
+                        return patch.getUserId() != null ? next.withUserId(patch.getUserId()) : next;
+                    });
+                    results.add(BatchItemResultDTO.ok(patch.getId(), cart));
+                } catch (CartNotFoundException ex) {
+                    results.add(BatchItemResultDTO.notFound(patch.getId()));
+                }
+            }
+            return results;
+        }
+
+        return withRetry(() -> {
+            Map<Long, Cart> carts = new HashMap<>();
+            cartRepository.findAllWithItemsByIdIn(patches.stream().map(CartDTO::getId).toList())
+                    .forEach(cart -> carts.put(cart.getId(), cart));
+
+            List<CartChange> changes = new ArrayList<>();
+            List<BatchItemResultDTO<Cart>> results = new ArrayList<>(patches.size());
+            for (CartDTO patch : patches) {
+                String problem = validatePatch(patch);
+                Cart cart = carts.get(patch.getId());
+                if (problem != null) {
+                    results.add(BatchItemResultDTO.invalid(patch.getId(), problem));
+                    continue;
+                }
+                if (cart == null) {
+                    results.add(BatchItemResultDTO.notFound(patch.getId()));
+                    continue;
+                }
+
+                entityManager.lock(cart, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+                Map<Long, Integer> previousQuantities = CartChange.quantities(cart);
+                if (patch.getUserId() != null) {
+                    cart.setUserId(patch.getUserId());
+                }
+                if (patch.getProducts() != null) {
+                    mergeItems(cart, toCartItems(patch.getProducts()));
+                }
+                CartChange change = CartChange.updated(cart, previousQuantities);
+                if (!change.isEmpty()) {
+                    changes.add(change);
+                }
+                results.add(BatchItemResultDTO.ok(cart.getId(), cart));
+            }
+
+            if (!changes.isEmpty()) {
+                eventPublisher.publishEvent(new CartsChangedEvent(changes));
+            }
+            return results;
+        });
+    }
+
+    private static String validatePatch(CartDTO patch) {
+        if (patch.getUserId() != null && patch.getUserId() <= 0) {
+            return "User ID must be greater than zero.";
+        }
+        if (patch.getProducts() != null) {
+            for (CartItemDTO item : patch.getProducts()) {
+                if (item.getProductId() == null || item.getQuantity() < 0) {
+                    return "Product ID is required and quantity cannot be negative.";
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<CartItem> toCartItems(List<CartItemDTO> items) {
+        return items.stream()
+                .map(item -> new CartItem(item.getProductId(), item.getQuantity()))
+                .toList();
+    }
+
+    /**
+     * Loads a cart and applies a change to it in its own transaction, publishing the net item
+     * changes, with retries on optimistic-lock conflicts.
+     */
+    private Cart writeWithRetry(Long id, Consumer<Cart> change) {
+        return withRetry(() -> {
+            Cart cart = loadForUpdate(id);
+            Map<Long, Integer> previousQuantities = CartChange.quantities(cart);
+            change.accept(cart);
+            CartChange cartChange = CartChange.updated(cart, previousQuantities);
+            if (!cartChange.isEmpty()) {
+                eventPublisher.publishEvent(CartsChangedEvent.of(cartChange));
+            }
+            return cart;
+        });
+    }
+
+    /**
+     * Runs a cart write in its own transaction and retries it with a short randomized backoff
+     * when a concurrent write to the same cart wins the optimistic-lock race.
+     */
+    private <T> T withRetry(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> write.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw ex;
+                }
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    // Loads a cart with its items for modification; its version is incremented on commit even if only items change
+    private Cart loadForUpdate(Long id) {
+        Cart cart = cartRepository.findByIdWithItems(id)
                 .orElseThrow(() -> new CartNotFoundException("Cart not found with ID " + id));
+        entityManager.lock(cart, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        return cart;
+    }
+
+    // Applies the desired lines to the managed collection in place so unchanged rows are not touched
+    static void mergeItems(Cart cart, List<CartItem> desiredItems) {
+        Map<Long, Integer> desired = new LinkedHashMap<>();
+        for (CartItem item : desiredItems) {
+            desired.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Iterator<CartItem> existingItems = cart.getCartItems().iterator();
+        while (existingItems.hasNext()) {
+            CartItem existing = existingItems.next();
+            Integer quantity = desired.remove(existing.getProductId());
+            if (quantity == null || quantity <= 0) {
+                existingItems.remove();
+            } else if (quantity != existing.getQuantity()) {
+                existing.setQuantity(quantity);
+            }
+        }
+
+        desired.forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                cart.getCartItems().add(newItem(cart, productId, quantity));
+            }
+        });
+    }
 
-        existingCart.setUserId(updatedCart.getUserId());
-        existingCart.setCartItems(updatedCart.getCartItems());
-        return cartRepository.save(existingCart);
+    private static CartItem findItem(Cart cart, Long productId) {
+        return cart.getCartItems().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .findFirst()
+                .orElse(null);
     }
 
+    private static CartItem newItem(Cart cart, Long productId, int quantity) {
+        CartItem item = new CartItem(productId, quantity);
+        item.setCart(cart);
+        return item;
+    }
+
+    // Pending write-behind changes are dropped by the store once the delete commits
     @Transactional
     public void deleteCart(Long id) {
-        cartRepository.findById(id)
+        Cart cart = cartRepository.findByIdWithItems(id)
                 .orElseThrow(() -> new CartNotFoundException("Cart not found with ID " + id));
-        cartRepository.deleteById(id);
+        eventPublisher.publishEvent(CartsChangedEvent.of(CartChange.deleted(cart)));
+        cartRepository.delete(cart);
+    }
+
+    /**
+     * Deletes many carts: one query loads them (their items feed the analytics), then their items
+     * and the carts themselves are removed with one set-based DELETE each. Unknown ids are reported.
+     * Pending write-behind changes of the deleted carts are dropped once the delete commits.
+     */
+    @Transactional
+    public List<BatchItemResultDTO<Void>> deleteCarts(Collection<Long> ids) {
+        List<Long> uniqueIds = Paging.resolveBatchIds(ids);
+
+        List<Cart> carts = cartRepository.findAllWithItemsByIdIn(uniqueIds);
+        Set<Long> found = carts.stream().map(Cart::getId).collect(Collectors.toSet());
+        if (!found.isEmpty()) {
+            eventPublisher.publishEvent(new CartsChangedEvent(carts.stream().map(CartChange::deleted).toList()));
+            entityManager.clear();
+            cartRepository.deleteItemsByCartIdIn(found);
+            cartRepository.deleteAllByIdInBatch(found);
+        }
+
+        return uniqueIds.stream()
+                .map(id -> found.contains(id)
+                        ? BatchItemResultDTO.<Void>ok(id, null)
+                        : BatchItemResultDTO.<Void>notFound(id))
+                .toList();
     }
 }
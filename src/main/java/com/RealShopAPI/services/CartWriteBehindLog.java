@@ -0,0 +1,126 @@
+package com.RealShopAPI.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, segmented NDJSON log of acknowledged cart changes. The active segment receives
+ * appends; rotate() seals it and opens the next one. Sealed segments are deleted once everything
+ * they contain has reached the database, and replayed in order after a crash.
+ */
+class CartWriteBehindLog implements AutoCloseable {
+
+    private static final String PREFIX = "carts-";
+    private static final String SUFFIX = ".wal";
+
+    // One line of the log; items == null marks a cart whose pending state was discarded
+    record Entry(Long cartId, Long userId, LocalDateTime createdAt, Map<Long, Integer> items) {
+    }
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private long nextSegment;
+    private Path activePath;
+    private FileOutputStream active;
+
+    CartWriteBehindLog(Path directory, ObjectMapper objectMapper, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+
+        sealedSegments.addAll(listSegments());
+        nextSegment = sealedSegments.isEmpty() ? 1 : segmentNumber(sealedSegments.getLast()) + 1;
+        openNextSegment();
+    }
+
+    /**
+     * Reads every sealed segment in order and hands each entry to the consumer.
+     * A torn last line (crash in the middle of an append) is skipped.
+     */
+    synchronized void replay(Consumer<Entry> consumer) throws IOException {
+        for (Path segment : sealedSegments) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        consumer.accept(objectMapper.readValue(line, Entry.class));
+                    } catch (IOException ex) {
+                        // Incomplete trailing record
+                    }
+                }
+            }
+        }
+    }
+
+    synchronized void append(Entry entry) {
+        try {
+            byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+            active.write(line);
+            active.flush();
+            if (fsync) {
+                active.getFD().sync();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not append to the cart write-behind log", ex);
+        }
+    }
+
+    // Seals the active segment and starts a new one; returns the segments sealed so far
+    synchronized List<Path> rotate() throws IOException {
+        active.getFD().sync();
+        active.close();
+        sealedSegments.add(activePath);
+        openNextSegment();
+        return List.copyOf(sealedSegments);
+    }
+
+    // Deletes sealed segments whose contents are now in the database
+    synchronized void release(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+            sealedSegments.remove(segment);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.close();
+    }
+
+    private void openNextSegment() throws IOException {
+        activePath = directory.resolve(PREFIX + String.format("%012d", nextSegment++) + SUFFIX);
+        active = new FileOutputStream(activePath.toFile(), true);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(PREFIX)
+                            && path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,340 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.events.CartChange;
+import com.RealShopAPI.events.CartsChangedEvent;
+import com.RealShopAPI.exceptions.CartNotFoundException;
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.repositories.CartRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Optional write-behind path for cart updates (realshop.carts.write-behind.enabled).
+ * <p>
+ * A change is applied to an in-memory, sharded map of pending cart states, appended to a local
+ * log and acknowledged. A background flusher periodically seals the log, writes the latest state
+ * of every pending cart to the carts/cart_items tables in batched transactions, and deletes the
+ * sealed log once all of it is persisted. Several changes to the same cart between flushes are
+ * coalesced into one write. On startup, leftover log segments are replayed and flushed.
+ * <p>
+ * Cart creation stays synchronous, since the id comes from the database.
+ * Never lazily initialized, so the log is replayed and flushed at startup.
+ */
+@Component
+@Lazy(false)
+public class CartWriteBehindStore implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CartWriteBehindStore.class);
+
+    private final boolean enabled;
+    private final Path logDirectory;
+    private final boolean fsync;
+    private final Duration flushInterval;
+    private final int batchSize;
+    private final List<Shard> shards;
+
+    private final CartRepository cartRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Appends take the read lock; sealing the log and snapshotting pending carts take the write lock
+    private final ReentrantReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private CartWriteBehindLog writeAheadLog;
+    private ScheduledExecutorService flusher;
+
+    public CartWriteBehindStore(CartRepository cartRepository, EntityManager entityManager,
+                                TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${realshop.carts.write-behind.enabled:false}") boolean enabled,
+                                @Value("${realshop.carts.write-behind.log-dir:./data/cart-wal}") Path logDirectory,
+                                @Value("${realshop.carts.write-behind.fsync:false}") boolean fsync,
+                                @Value("${realshop.carts.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                @Value("${realshop.carts.write-behind.batch-size:500}") int batchSize,
+                                @Value("${realshop.carts.write-behind.shards:16}") int shardCount) {
+        this.cartRepository = cartRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.logDirectory = logDirectory;
+        this.fsync = fsync;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        writeAheadLog = new CartWriteBehindLog(logDirectory, objectMapper, fsync);
+        writeAheadLog.replay(entry -> {
+            if (entry.items() == null) {
+                shard(entry.cartId()).carts.remove(entry.cartId());
+            } else {
+                shard(entry.cartId()).carts.put(entry.cartId(),
+                        new PendingCart(entry.cartId(), entry.userId(), entry.createdAt(), entry.items()));
+            }
+        });
+        log.info("Cart write-behind enabled, {} carts recovered from {}", pendingCount(), logDirectory);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "cart-write-behind"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, 0, flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+        writeAheadLog.close();
+    }
+
+    /**
+     * Applies a change to the acknowledged state of a cart and returns that state.
+     * The first change to a cart that is not pending loads it from the database. The load runs
+     * before any lock is taken and is redone if a pending state of the cart was flushed meanwhile.
+     * Changes to one cart are serialized; changes to different carts only contend within a shard.
+     */
+    public Cart mutate(Long cartId, UnaryOperator<PendingCart> change) {
+        Shard shard = shard(cartId);
+        PendingCart loaded = null;
+        long removals = 0;
+        while (true) {
+            if (loaded == null && !shard.carts.containsKey(cartId)) {
+                synchronized (shard) {
+                    removals = shard.removals;
+                }
+                loaded = load(cartId);
+            }
+
+            rotationLock.readLock().lock();
+            try {
+                synchronized (shard) {
+                    PendingCart current = shard.carts.get(cartId);
+                    if (current == null) {
+                        if (loaded == null || shard.removals != removals) {
+                            // Persisted and forgotten since the check above; the database has a newer state
+                            loaded = null;
+                            continue;
+                        }
+                        current = loaded;
+                    }
+                    PendingCart next = change.apply(current);
+                    writeAheadLog.append(new CartWriteBehindLog.Entry(next.cartId(), next.userId(), next.createdAt(), next.items()));
+                    shard.carts.put(cartId, next);
+                    return next.toCart();
+                }
+            } finally {
+                rotationLock.readLock().unlock();
+            }
+        }
+    }
+
+    // Acknowledged state of a cart that has not been flushed yet, or null
+    public Cart getPending(Long cartId) {
+        if (!enabled) {
+            return null;
+        }
+        PendingCart pending = shard(cartId).carts.get(cartId);
+        return pending != null ? pending.toCart() : null;
+    }
+
+    /**
+     * Drops the pending state of deleted carts once the delete has committed, so the flusher does not
+     * resurrect them. A delete that rolls back leaves its carts pending.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartsChanged(CartsChangedEvent event) {
+        for (CartChange change : event.changes()) {
+            if (change.cartDelta() < 0) {
+                discard(change.cartId());
+            }
+        }
+    }
+
+    /**
+     * Drops the pending state of a cart, logging a tombstone so a replay does not bring it back.
+     */
+    public void discard(Long cartId) {
+        if (!enabled) {
+            return;
+        }
+        Shard shard = shard(cartId);
+        rotationLock.readLock().lock();
+        try {
+            synchronized (shard) {
+                if (shard.carts.remove(cartId) != null) {
+                    shard.removals++;
+                    writeAheadLog.append(new CartWriteBehindLog.Entry(cartId, null, null, null));
+                }
+            }
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+    }
+
+    public int pendingCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.carts.size();
+        }
+        return count;
+    }
+
+    /**
+     * Seals the log, persists the latest state of every pending cart and, if all of it reached the
+     * database, deletes the sealed segments. Carts changed again meanwhile stay pending for the next round.
+     */
+    public synchronized void flush() throws IOException {
+        List<PendingCart> snapshot = new ArrayList<>();
+        List<Path> sealed;
+
+        rotationLock.writeLock().lock();
+        try {
+            sealed = writeAheadLog.rotate();
+            for (Shard shard : shards) {
+                snapshot.addAll(shard.carts.values());
+            }
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+
+        boolean complete = true;
+        for (int from = 0; from < snapshot.size(); from += batchSize) {
+            List<PendingCart> batch = snapshot.subList(from, Math.min(from + batchSize, snapshot.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(batch));
+                batch.forEach(this::markFlushed);
+            } catch (RuntimeException batchFailure) {
+                // Retry one by one so a single bad cart does not hold back the rest
+                for (PendingCart pending : batch) {
+                    complete &= persistAlone(pending);
+                }
+            }
+        }
+
+        if (complete) {
+            writeAheadLog.release(sealed);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Cart write-behind flush failed, will retry", ex);
+        }
+    }
+
+    private boolean persistAlone(PendingCart pending) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(List.of(pending)));
+            markFlushed(pending);
+            return true;
+        } catch (CartNotFoundException ex) {
+            log.warn("Dropping pending changes of deleted cart {}", pending.cartId());
+            markFlushed(pending);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Could not persist pending cart {}, will retry", pending.cartId(), ex);
+            return false;
+        }
+    }
+
+    // Writes a batch of carts in the current transaction and publishes their net item changes;
+    // unchanged item rows are left alone
+    private void persist(List<PendingCart> batch) {
+        List<Long> ids = batch.stream().map(PendingCart::cartId).toList();
+        Map<Long, Cart> carts = new HashMap<>();
+        cartRepository.findAllWithItemsByIdIn(ids).forEach(cart -> carts.put(cart.getId(), cart));
+
+        List<CartChange> changes = new ArrayList<>();
+        for (PendingCart pending : batch) {
+            Cart cart = carts.get(pending.cartId());
+            if (cart == null) {
+                throw new CartNotFoundException("Cart not found with ID " + pending.cartId());
+            }
+            entityManager.lock(cart, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            Map<Long, Integer> previousQuantities = CartChange.quantities(cart);
+            cart.setUserId(pending.userId());
+            CartService.mergeItems(cart, pending.toCartItems(cart));
+
+            CartChange change = CartChange.updated(cart, previousQuantities);
+            if (!change.isEmpty()) {
+                changes.add(change);
+            }
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new CartsChangedEvent(changes));
+        }
+    }
+
+    // Forgets a pending state once persisted, unless the cart was changed again in the meantime
+    private void markFlushed(PendingCart pending) {
+        Shard shard = shard(pending.cartId());
+        synchronized (shard) {
+            if (shard.carts.remove(pending.cartId(), pending)) {
+                shard.removals++;
+            }
+        }
+    }
+
+    private PendingCart load(Long cartId) {
+        Cart cart = cartRepository.findByIdWithItems(cartId)
+                .orElseThrow(() -> new CartNotFoundException("Cart not found with ID " + cartId));
+        return PendingCart.of(cart);
+    }
+
+    private Shard shard(Long cartId) {
+        return shards.get(Math.floorMod(Long.hashCode(cartId), shards.size()));
+    }
+
+    // Pending carts of one shard. Writers hold its monitor; removals counts the carts that left it,
+    // so a cart loaded outside the monitor can be checked for having been persisted meanwhile.
+    private static final class Shard {
+
+        private final ConcurrentHashMap<Long, PendingCart> carts = new ConcurrentHashMap<>();
+        private long removals;
+    }
+}
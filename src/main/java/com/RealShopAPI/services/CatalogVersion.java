@@ -0,0 +1,35 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.events.ProductsChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the product catalog as seen by this node, bumped after every committed product write.
+ * Used in strong ETags for product reads so unchanged data is answered with 304 without a query.
+ * The epoch changes on every start, so tags from a previous run never match.
+ */
+@Component
+public class CatalogVersion {
+
+    private final long epoch = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+    private final AtomicLong version = new AtomicLong();
+
+    // Last among the product listeners: by the time the version moves, caches and indexes already
+    // reflect the write, so a tag read before a query can only be older than the data it labels
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    // Unquoted version; entity tags add the representation to it
+    public String current() {
+        return Long.toHexString(epoch) + "-" + version.get();
+    }
+}
@@ -0,0 +1,71 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.models.Category;
+import com.RealShopAPI.repositories.CategoryRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the categories table in step with the products table so category listings and
+ * facet counts never scan products. The table is filled from existing products by migration V4.
+ */
+@Service
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+
+    public CategoryService(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Fetches the names of all categories that contain products.
+     */
+    public List<String> getCategoryNames() {
+        return getCategories().stream().map(Category::getName).toList();
+    }
+
+    /**
+     * Fetches all categories that contain products, with their product counts.
+     */
+    public List<Category> getCategories() {
+        return categoryRepository.findByProductCountGreaterThanOrderByNameAsc(0);
+    }
+
+    public boolean hasProducts(String category) {
+        return categoryRepository.existsByNameAndProductCountGreaterThan(category, 0);
+    }
+
+    /**
+     * Applies the net count change of a batch of product writes. Runs inside the writing
+     * transaction, so counts commit or roll back together with the products.
+     * Categories are updated in name order to keep lock order consistent across writers.
+     */
+    @EventListener
+    @Transactional
+    public void onProductsChanged(ProductsChangedEvent event) {
+        Map<String, Long> deltas = new TreeMap<>();
+        for (ProductChange change : event.changes()) {
+            if (change.previousCategory() != null) {
+                deltas.merge(change.previousCategory(), -1L, Long::sum);
+            }
+            if (change.category() != null) {
+                deltas.merge(change.category(), 1L, Long::sum);
+            }
+        }
+
+        deltas.forEach((name, delta) -> {
+            if (delta != 0 && categoryRepository.adjustProductCount(name, delta) == 0) {
+                categoryRepository.insertIfAbsent(name);
+                categoryRepository.adjustProductCount(name, delta);
+            }
+        });
+    }
+}
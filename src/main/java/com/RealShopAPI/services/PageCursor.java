@@ -0,0 +1,46 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.exceptions.InvalidCursorException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row returned by a keyset page: the sort field and direction it was read with,
+ * the row id and the value of the sort key. Clients only ever see the opaque encoded form.
+ */
+public record PageCursor(String field, Sort.Direction direction, Long id, String key) {
+
+    public String encode() {
+        String raw = field + "|" + direction.name() + "|" + id + "|" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor and checks that it was issued for the same sort field and direction.
+     * Throws InvalidCursorException if the cursor is malformed or belongs to a different ordering.
+     */
+    public static PageCursor decode(String cursor, String expectedField, Sort.Direction expectedDirection) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            parts = raw.split("\\|", 4);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Malformed cursor.");
+        }
+
+        if (parts.length != 4) {
+            throw new InvalidCursorException("Malformed cursor.");
+        }
+        if (!parts[0].equals(expectedField) || !parts[1].equals(expectedDirection.name())) {
+            throw new InvalidCursorException("Cursor does not match the requested sort order.");
+        }
+
+        try {
+            return new PageCursor(parts[0], expectedDirection, Long.valueOf(parts[2]), parts[3]);
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException("Malformed cursor.");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.exceptions.InvalidBatchException;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Shared limits for listing and batch endpoints.
+ */
+public final class Paging {
+
+    // Upper bound for a single listing page, also used when no limit is given
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private Paging() {
+    }
+
+    /**
+     * Checks the ids of a batch request: at least one, at most MAX_PAGE_SIZE, none null.
+     * Duplicates are dropped, first occurrence wins.
+     */
+    public static List<Long> resolveBatchIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidBatchException("At least one ID is required.");
+        }
+        if (ids.size() > MAX_PAGE_SIZE) {
+            throw new InvalidBatchException("A batch can hold at most " + MAX_PAGE_SIZE + " IDs.");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidBatchException("IDs cannot be null.");
+        }
+        return List.copyOf(new LinkedHashSet<>(ids));
+    }
+
+    /**
+     * Clamps a requested limit to (0, MAX_PAGE_SIZE]; missing or non-positive limits get the maximum.
+     */
+    public static int resolveLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return MAX_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
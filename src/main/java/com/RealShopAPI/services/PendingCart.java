@@ -0,0 +1,77 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.models.CartItem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acknowledged but not yet persisted state of a cart in write-behind mode: the full desired
+ * contents (productId -> quantity), so later changes to the same cart simply replace it.
+ */
+public record PendingCart(Long cartId, Long userId, LocalDateTime createdAt, Map<Long, Integer> items) {
+
+    public PendingCart {
+        items = Collections.unmodifiableMap(new LinkedHashMap<>(items));
+    }
+
+    static PendingCart of(Cart cart) {
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        for (CartItem item : cart.getCartItems()) {
+            items.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return new PendingCart(cart.getId(), cart.getUserId(), cart.getCreatedAt(), items);
+    }
+
+    PendingCart withContents(Long newUserId, List<CartItem> newItems) {
+        Map<Long, Integer> next = new LinkedHashMap<>();
+        for (CartItem item : newItems) {
+            next.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        next.values().removeIf(quantity -> quantity <= 0);
+        return new PendingCart(cartId, newUserId, createdAt, next);
+    }
+
+    PendingCart withUserId(Long newUserId) {
+        return new PendingCart(cartId, newUserId, createdAt, items);
+    }
+
+    PendingCart withQuantity(Long productId, int quantity) {
+        Map<Long, Integer> next = new LinkedHashMap<>(items);
+        if (quantity <= 0) {
+            next.remove(productId);
+        } else {
+            next.put(productId, quantity);
+        }
+        return new PendingCart(cartId, userId, createdAt, next);
+    }
+
+    PendingCart plusQuantity(Long productId, int quantity) {
+        return withQuantity(productId, items.getOrDefault(productId, 0) + quantity);
+    }
+
+    List<CartItem> toCartItems(Cart cart) {
+        List<CartItem> cartItems = new ArrayList<>(items.size());
+        items.forEach((productId, quantity) -> {
+            CartItem item = new CartItem(productId, quantity);
+            item.setCart(cart);
+            cartItems.add(item);
+        });
+        return cartItems;
+    }
+
+    // Detached view of the acknowledged cart, as returned to clients before it is flushed
+    Cart toCart() {
+        Cart cart = new Cart();
+        cart.setId(cartId);
+        cart.setUserId(userId);
+        cart.setCreatedAt(createdAt);
+        cart.setCartItems(toCartItems(cart));
+        return cart;
+    }
+}
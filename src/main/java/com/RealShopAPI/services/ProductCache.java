@@ -0,0 +1,166 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.config.CacheConfig;
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.models.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of ProductRepository for products by id, the category list
+ * and per-category listings. Entries are invalidated after the writing transaction commits.
+ * <p>
+ * Listings and the category list are keyed by a generation of the category (or of the whole
+ * catalog) they cover, which a write bumps before evicting. A load that read the old rows can
+ * still finish after the eviction, but only under the old generation, which no reader asks for
+ * again. Single products go through Caffeine's atomic get, which an invalidation of the same
+ * key waits for; bulk loads only insert a product if no write happened since the load began.
+ */
+@Component
+public class ProductCache {
+
+    private static final String CATEGORIES_KEY = "all";
+
+    private final Cache<Object, Object> products;
+    private final Cache<Object, Object> categories;
+    private final Cache<Object, Object> queries;
+
+    // Bumped on every write; listings across the whole catalog and bulk product loads follow it
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    // Bumped when the set of categories may have changed
+    private final AtomicLong categorySetGeneration = new AtomicLong();
+    // Per-category generations for category listings; a missing entry is generation 0
+    private final ConcurrentHashMap<String, Long> categoryGenerations = new ConcurrentHashMap<>();
+
+    public ProductCache(CacheManager cacheManager) {
+        this.products = nativeCache(cacheManager, CacheConfig.PRODUCTS);
+        this.categories = nativeCache(cacheManager, CacheConfig.PRODUCT_CATEGORIES);
+        this.queries = nativeCache(cacheManager, CacheConfig.PRODUCT_QUERIES);
+    }
+
+    // Cache key for a product listing; category is null for listings across the whole catalog
+    public record ProductQuery(String category, Sort sort, int limit) {
+    }
+
+    // Cache key stamped with the generation of the data it was loaded from
+    private record Versioned(Object key, long generation) {
+    }
+
+    /**
+     * Returns the cached product or loads it. A loader returning null is not cached.
+     */
+    public Product getProduct(Long id, Function<Long, Product> loader) {
+        return (Product) products.get(id, key -> loader.apply((Long) key));
+    }
+
+    /**
+     * Returns the cached products among the given ids and loads all missing ones with a single
+     * call to the loader. Ids the loader does not return are absent from the result.
+     */
+    public Map<Long, Product> getProducts(Collection<Long> ids, Function<Set<Long>, Map<Long, Product>> loader) {
+        Map<Long, Product> found = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            Product product = (Product) products.getIfPresent(id);
+            if (product != null) {
+                found.put(id, product);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long generation = catalogGeneration.get();
+        Map<Long, Product> loaded = loader.apply(missing);
+        loaded.forEach((id, product) -> {
+            // Runs under the key's lock, like invalidate(id): either the write's invalidation
+            // comes after this insert and removes it, or its generation bump is seen here
+            products.asMap().compute(id, (key, current) ->
+                    current == null && catalogGeneration.get() == generation ? product : current);
+            found.put(id, product);
+        });
+        return found;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> getCategories(Supplier<List<String>> loader) {
+        Versioned key = new Versioned(CATEGORIES_KEY, categorySetGeneration.get());
+        return (List<String>) categories.get(key, k -> List.copyOf(loader.get()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<ProductDTO> getProducts(ProductQuery query, Supplier<List<ProductDTO>> loader) {
+        long generation = query.category() == null
+                ? catalogGeneration.get()
+                : categoryGenerations.getOrDefault(query.category(), 0L);
+        return (List<ProductDTO>) queries.get(new Versioned(query, generation), key -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Drops exactly the entries a write can affect: the product itself, listings of its old
+     * and new category plus catalog-wide listings, and the category list when the set of
+     * categories may have changed. Price-only updates keep the category list cached.
+     * Generations are bumped before anything is evicted, so readers switch to fresh keys first.
+     * Runs ahead of CatalogVersion, which only moves once the cache no longer holds the old data.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        Set<String> affectedCategories = new HashSet<>();
+        boolean categorySetChanged = false;
+
+        for (ProductChange change : event.changes()) {
+            if (change.previousCategory() != null) {
+                affectedCategories.add(change.previousCategory());
+            }
+            if (change.category() != null) {
+                affectedCategories.add(change.category());
+            }
+            if (!Objects.equals(change.previousCategory(), change.category())) {
+                categorySetChanged = true;
+            }
+        }
+
+        catalogGeneration.incrementAndGet();
+        affectedCategories.forEach(category -> categoryGenerations.merge(category, 1L, Long::sum));
+        if (categorySetChanged) {
+            categorySetGeneration.incrementAndGet();
+        }
+
+        event.changes().forEach(change -> products.invalidate(change.id()));
+        // Entries of older generations can no longer be hit; dropping them now only frees memory
+        if (categorySetChanged) {
+            categories.invalidateAll();
+        }
+        queries.asMap().keySet().removeIf(key -> {
+            String category = ((ProductQuery) ((Versioned) key).key()).category();
+            return category == null || affectedCategories.contains(category);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+        return (Cache<Object, Object>) Objects.requireNonNull(cacheManager.getCache(name)).getNativeCache();
+    }
+}
@@ -0,0 +1,308 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.dto.ImportChunkDTO;
+import com.RealShopAPI.dto.ImportResultDTO;
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.models.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a product catalog from an NDJSON or CSV request body into the products table.
+ * Rows are validated one by one, then written chunk by chunk with batches of multi-row INSERTs,
+ * each chunk in its own transaction, so memory stays bounded and one bad chunk does not
+ * undo the ones already committed.
+ */
+@Service
+public class ProductImportService {
+
+    static final int MAX_ERRORS_PER_CHUNK = 20;
+
+    // Rows per INSERT statement. Drivers such as H2's send every statement of a JDBC batch in its own
+    // round trip, so a chunk costs chunk-size / ROWS_PER_STATEMENT round trips instead of chunk-size.
+    static final int ROWS_PER_STATEMENT = 50;
+
+    private static final String INSERT_SQL = insertSql(ROWS_PER_STATEMENT);
+
+    public enum Format { NDJSON, CSV }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    // The dialect's own "next value" query for products_seq, so the import runs on any database the prod profile points at
+    private final String nextIdBlockSql;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper, Validator validator, ProductMapper productMapper,
+                                ApplicationEventPublisher eventPublisher, EntityManagerFactory entityManagerFactory,
+                                @Value("${realshop.import.chunk-size:1000}") int chunkSize) {
+        this.nextIdBlockSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceSupport().getSequenceNextValString(Product.ID_SEQUENCE);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.productMapper = productMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every row of the body and reports per-chunk success and failure counts.
+     * CSV input must start with a header naming the columns (title, price, description, image, category).
+     */
+    public ImportResultDTO importProducts(InputStream body, Format format) throws IOException {
+        List<ImportChunkDTO> chunks = new ArrayList<>();
+        long rowsRead = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            Function<String, ProductDTO> parser = this::parseJson;
+            if (format == Format.CSV) {
+                String header = reader.readLine();
+                lineNumber++;
+                parser = csvParser(header != null ? header : "");
+            }
+
+            List<Product> batch = new ArrayList<>(chunkSize);
+            List<String> errors = new ArrayList<>();
+            int rejected = 0;
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                rowsRead++;
+
+                try {
+                    Product product = productMapper.toEntity(parser.apply(line));
+                    Set<ConstraintViolation<Product>> violations = validator.validate(product);
+                    if (!violations.isEmpty()) {
+                        throw new IllegalArgumentException(violations.stream()
+                                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                                .collect(Collectors.joining(", ")));
+                    }
+                    batch.add(product);
+                } catch (IllegalArgumentException ex) {
+                    rejected++;
+                    addError(errors, "line " + lineNumber + ": " + ex.getMessage());
+                }
+
+                if (batch.size() + rejected >= chunkSize) {
+                    chunks.add(writeChunk(chunks.size() + 1, batch, rejected, errors));
+                    batch = new ArrayList<>(chunkSize);
+                    errors = new ArrayList<>();
+                    rejected = 0;
+                }
+            }
+
+            if (batch.size() + rejected > 0) {
+                chunks.add(writeChunk(chunks.size() + 1, batch, rejected, errors));
+            }
+        }
+
+        long imported = chunks.stream().mapToLong(ImportChunkDTO::getImported).sum();
+        long failed = chunks.stream().mapToLong(ImportChunkDTO::getFailed).sum();
+        return new ImportResultDTO(rowsRead, imported, failed, chunks);
+    }
+
+    // Commits one chunk; a database error fails the whole chunk but not the import
+    private ImportChunkDTO writeChunk(int number, List<Product> batch, int rejected, List<String> errors) {
+        if (batch.isEmpty()) {
+            return new ImportChunkDTO(number, 0, rejected, errors);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertBatch(batch));
+            return new ImportChunkDTO(number, batch.size(), rejected, errors);
+        } catch (DataAccessException ex) {
+            addError(errors, "chunk rejected: " + ex.getMostSpecificCause().getMessage());
+            return new ImportChunkDTO(number, 0, rejected + batch.size(), errors);
+        }
+    }
+
+    private void insertBatch(List<Product> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        long[] ids = allocateIds(batch.size());
+
+        int statements = batch.size() / ROWS_PER_STATEMENT;
+        if (statements > 0) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    bindRows(ps, batch, ids, i * ROWS_PER_STATEMENT, ROWS_PER_STATEMENT, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return statements;
+                }
+            });
+        }
+        int remaining = batch.size() % ROWS_PER_STATEMENT;
+        if (remaining > 0) {
+            jdbcTemplate.update(insertSql(remaining),
+                    ps -> bindRows(ps, batch, ids, statements * ROWS_PER_STATEMENT, remaining, now));
+        }
+
+        // Caches and indexes learn about the new rows once the chunk commits
+        List<ProductChange> changes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Product product = batch.get(i);
+            changes.add(ProductChange.created(new Product(ids[i], product.getTitle(), product.getPrice(),
+                    product.getDescription(), product.getImage(), product.getCategory())));
+        }
+        eventPublisher.publishEvent(new ProductsChangedEvent(changes));
+    }
+
+    // Takes ids from products_seq the way Hibernate's pooled optimizer does: value v covers v - 49 .. v
+    private long[] allocateIds(int count) {
+        long[] ids = new long[count];
+        int i = 0;
+        while (i < count) {
+            long blockEnd = jdbcTemplate.queryForObject(nextIdBlockSql, Long.class);
+            for (long id = blockEnd - Product.ID_ALLOCATION_SIZE + 1; id <= blockEnd && i < count; id++) {
+                ids[i++] = id;
+            }
+        }
+        return ids;
+    }
+
+    // Binds rows from..from + rows - 1 of the batch to a multi-row INSERT
+    private static void bindRows(PreparedStatement ps, List<Product> batch, long[] ids, int from, int rows,
+                                 LocalDateTime now) throws SQLException {
+        int parameter = 1;
+        for (int i = from; i < from + rows; i++) {
+            Product product = batch.get(i);
+            ps.setLong(parameter++, ids[i]);
+            ps.setString(parameter++, product.getTitle());
+            ps.setObject(parameter++, product.getPrice());
+            ps.setString(parameter++, product.getDescription());
+            ps.setString(parameter++, product.getImage());
+            ps.setString(parameter++, product.getCategory());
+            ps.setObject(parameter++, now);
+            ps.setObject(parameter++, now);
+        }
+    }
+
+    private static String insertSql(int rows) {
+        return "INSERT INTO products (id, title, price, description, image, category, created_at, updated_at) VALUES "
+                + String.join(", ", Collections.nCopies(rows, "(?, ?, ?, ?, ?, ?, ?, ?)"));
+    }
+
+    private ProductDTO parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, ProductDTO.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("invalid JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private static Function<String, ProductDTO> csvParser(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsvLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        return line -> {
+            List<String> values = splitCsvLine(line);
+            ProductDTO productDTO = new ProductDTO();
+            productDTO.setTitle(column(values, columns, "title"));
+            productDTO.setDescription(column(values, columns, "description"));
+            productDTO.setImage(column(values, columns, "image"));
+            productDTO.setCategory(column(values, columns, "category"));
+
+            String price = column(values, columns, "price");
+            if (price != null) {
+                try {
+                    productDTO.setPrice(Double.valueOf(price.trim()));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("invalid price '" + price + "'");
+                }
+            }
+            return productDTO;
+        };
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    // Splits one CSV record; supports quoted fields with "" escapes, not line breaks inside quotes
+    static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static void addError(List<String> errors, String error) {
+        if (errors.size() < MAX_ERRORS_PER_CHUNK) {
+            errors.add(error);
+        }
+    }
+}
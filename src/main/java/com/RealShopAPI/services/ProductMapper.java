@@ -21,6 +21,7 @@ public class ProductMapper {
     // Convert Product entity to ProductDTO
     public ProductDTO toDto(Product product) {
         ProductDTO productDTO = new ProductDTO();
+        productDTO.setId(product.getId());
         productDTO.setTitle(product.getTitle());
         productDTO.setPrice(product.getPrice());
         productDTO.setDescription(product.getDescription());
@@ -0,0 +1,352 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.repositories.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory price index: per category (and over the whole catalog) the products sorted by
+ * (price, id), held as parallel double[] / long[] arrays. A price range is two binary searches,
+ * and the rows come from an id-to-DTO map, so range queries sorted by price or id never touch
+ * the database. Id order keeps the first limit ids of the range in a bounded heap.
+ * Slices are immutable and swapped on write, so readers never lock. Writes are serialized and
+ * batched: a slice keeps the keys written since it was last rebuilt in a small sorted run, and
+ * in a set the ids whose keys in the base are dead. Readers merge the two; once they outgrow
+ * COMPACTION_MIN or the square root of the slice, whichever is larger, the next write folds them
+ * into a new base in one pass.
+ * Memory: 16 bytes per product in the catalog slice and again in its category slice, plus one
+ * DTO per product - a second copy of the catalog rows next to the database (their count is the
+ * realshop.price.index.products gauge). The index is built once the application is ready and
+ * follows every ProductsChangedEvent after commit.
+ */
+@Component
+public class ProductPriceIndex {
+
+    private static final Comparator<ProductDTO> PRICE_ORDER =
+            Comparator.comparingDouble(ProductDTO::getPrice).thenComparingLong(ProductDTO::getId);
+    private static final int COMPACTION_MIN = 64;
+
+    private final ConcurrentHashMap<Long, ProductDTO> products = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Slice> categories = new ConcurrentHashMap<>();
+    private volatile Slice catalog = Slice.EMPTY;
+    private volatile boolean ready;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Ids written through events while the initial build runs; the build must not overwrite them
+    private Set<Long> touchedDuringBuild;
+
+    public ProductPriceIndex(ProductRepository productRepository, ProductMapper productMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (this) {
+            touchedDuringBuild = new HashSet<>();
+        }
+        List<ProductDTO> loaded = new ArrayList<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductDTO> rows = productRepository.streamAllProjected()) {
+                rows.forEach(loaded::add);
+            }
+        });
+
+        synchronized (this) {
+            for (ProductDTO product : loaded) {
+                if (!touchedDuringBuild.contains(product.getId())) {
+                    products.put(product.getId(), product);
+                }
+            }
+            touchedDuringBuild = null;
+
+            Map<String, List<ProductDTO>> byCategory = new HashMap<>();
+            products.values().forEach(product ->
+                    byCategory.computeIfAbsent(product.getCategory(), key -> new ArrayList<>()).add(product));
+            byCategory.forEach((category, members) -> categories.put(category, Slice.of(members)));
+            catalog = Slice.of(new ArrayList<>(products.values()));
+            ready = true;
+        }
+    }
+
+    // Ahead of CatalogVersion: whoever sees the new catalog version must find the write in the index
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsChanged(ProductsChangedEvent event) {
+        Set<Long> changedIds = new HashSet<>();
+        Map<String, List<ProductDTO>> added = new HashMap<>();
+        Set<String> touchedCategories = new HashSet<>();
+
+        for (ProductChange change : event.changes()) {
+            if (touchedDuringBuild != null) {
+                touchedDuringBuild.add(change.id());
+            }
+            changedIds.add(change.id());
+            if (change.previousCategory() != null) {
+                touchedCategories.add(change.previousCategory());
+            }
+            if (change.isDeleted()) {
+                products.remove(change.id());
+            } else {
+                ProductDTO product = productMapper.toDto(change.product());
+                products.put(product.getId(), product);
+                touchedCategories.add(product.getCategory());
+                added.computeIfAbsent(product.getCategory(), key -> new ArrayList<>()).add(product);
+            }
+        }
+
+        if (!ready) {
+            return;
+        }
+        for (String category : touchedCategories) {
+            Slice updated = categories.getOrDefault(category, Slice.EMPTY)
+                    .update(changedIds, added.getOrDefault(category, List.of()));
+            if (updated.isEmpty()) {
+                categories.remove(category);
+            } else {
+                categories.put(category, updated);
+            }
+        }
+        catalog = catalog.update(changedIds, added.values().stream().flatMap(List::stream).toList());
+    }
+
+    /**
+     * Products with minPrice <= price <= maxPrice (a null bound is open), optionally in one
+     * category, sorted by price or id and cut to limit. Returns null when the index cannot answer:
+     * before the initial build has finished, or for title sorting.
+     */
+    public List<ProductDTO> find(String category, Double minPrice, Double maxPrice, String sortBy, String sort, int limit) {
+        if (!ready || "title".equalsIgnoreCase(sortBy)) {
+            return null;
+        }
+
+        Slice slice = category == null ? catalog : categories.getOrDefault(category, Slice.EMPTY);
+        boolean descending = "desc".equalsIgnoreCase(sort);
+        long[] ids = "price".equalsIgnoreCase(sortBy)
+                ? slice.byPrice(minPrice, maxPrice, descending, limit)
+                : slice.byId(minPrice, maxPrice, descending, limit);
+
+        List<ProductDTO> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            ProductDTO product = products.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    /**
+     * The keys of one category (or the catalog): a base run, the keys written since it was built,
+     * and the ids written since then, whose keys in the base (if any) are dead.
+     */
+    private record Slice(Run base, Run added, Set<Long> removed) {
+
+        static final Slice EMPTY = new Slice(Run.EMPTY, Run.EMPTY, Set.of());
+
+        static Slice of(List<ProductDTO> members) {
+            return new Slice(Run.of(members), Run.EMPTY, Set.of());
+        }
+
+        boolean isEmpty() {
+            return base.size() == 0 && added.size() == 0;
+        }
+
+        // New slice with the changed ids dropped and the added products in; O(delta) until it compacts
+        Slice update(Set<Long> changed, List<ProductDTO> additions) {
+            Run addedNow = added.merge(changed, Run.of(new ArrayList<>(additions)));
+            Set<Long> removedNow = new HashSet<>(removed);
+            removedNow.addAll(changed);
+            int delta = addedNow.size() + removedNow.size();
+            if (delta <= Math.max(COMPACTION_MIN, (int) Math.sqrt(base.size())) && removedNow.size() < base.size()) {
+                return new Slice(base, addedNow, removedNow);
+            }
+            return new Slice(base.merge(removedNow, addedNow), Run.EMPTY, Set.of());
+        }
+
+        // Up to limit ids priced within [min, max] in (price, id) order, merging base and added
+        long[] byPrice(Double min, Double max, boolean descending, int limit) {
+            int baseFrom = base.from(min);
+            int baseTo = base.to(max);
+            int addedFrom = added.from(min);
+            int addedTo = added.to(max);
+            int step = descending ? -1 : 1;
+            int i = descending ? baseTo - 1 : baseFrom;
+            int j = descending ? addedTo - 1 : addedFrom;
+
+            long[] ids = new long[Math.max(0, Math.min(limit, baseTo - baseFrom + addedTo - addedFrom))];
+            int n = 0;
+            while (n < ids.length) {
+                boolean hasBase = i >= baseFrom && i < baseTo;
+                boolean hasAdded = j >= addedFrom && j < addedTo;
+                if (hasBase && removed.contains(base.ids[i])) {
+                    i += step;
+                    continue;
+                }
+                if (!hasBase && !hasAdded) {
+                    break;
+                }
+                if (!hasAdded || (hasBase && (base.compare(i, added, j) < 0) != descending)) {
+                    ids[n++] = base.ids[i];
+                    i += step;
+                } else {
+                    ids[n++] = added.ids[j];
+                    j += step;
+                }
+            }
+            return Arrays.copyOf(ids, n);
+        }
+
+        // The first limit ids priced within [min, max], in id order: one pass over the range into a bounded heap
+        long[] byId(Double min, Double max, boolean descending, int limit) {
+            // The head is the id a better one evicts: the largest kept ascending, the smallest descending
+            PriorityQueue<Long> kept = new PriorityQueue<>(descending ? Comparator.<Long>naturalOrder() : Comparator.<Long>reverseOrder());
+            keep(kept, base, base.from(min), base.to(max), descending, limit, removed);
+            keep(kept, added, added.from(min), added.to(max), descending, limit, Set.of());
+
+            long[] ids = new long[kept.size()];
+            for (int n = ids.length - 1; n >= 0; n--) {
+                ids[n] = kept.poll();
+            }
+            return ids;
+        }
+
+        private static void keep(PriorityQueue<Long> kept, Run run, int from, int to, boolean descending, int limit,
+                                 Set<Long> skipped) {
+            for (int i = from; i < to; i++) {
+                long id = run.ids[i];
+                if (kept.size() == limit && (descending ? id <= kept.peek() : id >= kept.peek())) {
+                    continue;
+                }
+                if (!skipped.contains(id)) {
+                    kept.add(id);
+                    if (kept.size() > limit) {
+                        kept.poll();
+                    }
+                }
+            }
+        }
+    }
+
+    // Prices and ids of a set of products in (price, id) order
+    private record Run(double[] prices, long[] ids) {
+
+        static final Run EMPTY = new Run(new double[0], new long[0]);
+
+        static Run of(List<ProductDTO> members) {
+            members.sort(PRICE_ORDER);
+            double[] prices = new double[members.size()];
+            long[] ids = new long[members.size()];
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = members.get(i).getPrice();
+                ids[i] = members.get(i).getId();
+            }
+            return new Run(prices, ids);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        // Orders key i of this run against key j of the other one by (price, id)
+        int compare(int i, Run other, int j) {
+            int byPrice = Double.compare(prices[i], other.prices[j]);
+            return byPrice != 0 ? byPrice : Long.compare(ids[i], other.ids[j]);
+        }
+
+        // New run without the removed ids and with the added keys, in one merge pass
+        Run merge(Set<Long> removed, Run additions) {
+            double[] mergedPrices = new double[size() + additions.size()];
+            long[] mergedIds = new long[mergedPrices.length];
+
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size() || j < additions.size()) {
+                if (i < size() && removed.contains(ids[i])) {
+                    i++;
+                    continue;
+                }
+                if (j == additions.size() || (i < size() && compare(i, additions, j) < 0)) {
+                    mergedPrices[n] = prices[i];
+                    mergedIds[n++] = ids[i++];
+                } else {
+                    mergedPrices[n] = additions.prices[j];
+                    mergedIds[n++] = additions.ids[j++];
+                }
+            }
+            return new Run(Arrays.copyOf(mergedPrices, n), Arrays.copyOf(mergedIds, n));
+        }
+
+        // Index of the first price >= min (0 without a bound)
+        int from(Double min) {
+            return min != null ? firstAtLeast(min) : 0;
+        }
+
+        // Index past the last price <= max (size() without a bound)
+        int to(Double max) {
+            return max != null ? firstAbove(max) : size();
+        }
+
+        // Index of the first price >= value, or size() if there is none
+        int firstAtLeast(double value) {
+            int low = 0;
+            int high = prices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prices[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Index of the first price > value, or size() if there is none
+        int firstAbove(double value) {
+            int low = 0;
+            int high = prices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prices[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
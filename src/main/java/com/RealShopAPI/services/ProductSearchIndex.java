@@ -0,0 +1,327 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.models.Product;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product title, description and category.
+ * Terms are kept in a sorted map so a query token also matches every term it is a prefix of;
+ * each posting carries a weight (title > category > description) used to rank results.
+ * Postings are immutable arrays sorted by product id, so a query intersects primitive arrays
+ * starting from its rarest token and readers never lock. Writers are serialized and rebuild each
+ * touched posting once per batch of changes. The index is built once the application is ready
+ * and follows every ProductsChangedEvent after commit.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.5f;
+    // Upper bound on terms a single prefix expands to, so one-letter queries stay cheap.
+    // The exact term comes first, then the longer terms in alphabetical order.
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int BUILD_BATCH = 1_000;
+
+    private final ConcurrentSkipListMap<String, Posting> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Set<String>> documentTerms = new ConcurrentHashMap<>();
+    private final ProductService productService;
+
+    // Ids written through events while the initial build runs; the build must not overwrite them
+    private Set<Long> touchedDuringBuild;
+
+    public ProductSearchIndex(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (this) {
+            touchedDuringBuild = ConcurrentHashMap.newKeySet();
+        }
+        List<ProductDTO> batch = new ArrayList<>(BUILD_BATCH);
+        productService.forEachProduct(null, product -> {
+            batch.add(product);
+            if (batch.size() == BUILD_BATCH) {
+                addBuilt(batch);
+                batch.clear();
+            }
+        });
+        addBuilt(batch);
+        synchronized (this) {
+            touchedDuringBuild = null;
+        }
+    }
+
+    // Ahead of CatalogVersion, so the new catalog version is only published once the write is searchable
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsChanged(ProductsChangedEvent event) {
+        Map<Long, Map<String, Float>> documents = new LinkedHashMap<>();
+        for (ProductChange change : event.changes()) {
+            if (touchedDuringBuild != null) {
+                touchedDuringBuild.add(change.id());
+            }
+            Product product = change.product();
+            documents.put(change.id(), change.isDeleted()
+                    ? null
+                    : termWeights(product.getTitle(), product.getCategory(), product.getDescription()));
+        }
+        apply(documents);
+    }
+
+    /**
+     * Returns the ids of the best matching products, highest score first.
+     * Every query token must match (exactly or as a prefix) one of the product's terms;
+     * a token that is a prefix of many terms only matches through the first MAX_PREFIX_EXPANSIONS of them.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<Posting> matches = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Posting posting = match(token);
+            if (posting.size() == 0) {
+                return List.of();
+            }
+            matches.add(posting);
+        }
+
+        // Intersect starting from the most selective token, so every step probes the fewest ids
+        matches.sort(Comparator.comparingInt(Posting::size));
+        Posting result = matches.get(0);
+        for (int i = 1; i < matches.size() && result.size() > 0; i++) {
+            result = result.intersect(matches.get(i));
+        }
+        return top(result, limit);
+    }
+
+    public int size() {
+        return documentTerms.size();
+    }
+
+    // Scores of all products matching one token: exact term hits count fully, prefix hits at a discount
+    private Posting match(String token) {
+        List<Posting> terms = new ArrayList<>();
+        for (Map.Entry<String, Posting> term : postings.subMap(token, true, token + Character.MAX_VALUE, true).entrySet()) {
+            if (terms.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            terms.add(term.getKey().equals(token) ? term.getValue() : term.getValue().scaled(PREFIX_FACTOR));
+        }
+        if (terms.isEmpty()) {
+            return Posting.EMPTY;
+        }
+
+        // Merge pairwise so every id is copied O(log n) times rather than once per term
+        while (terms.size() > 1) {
+            List<Posting> merged = new ArrayList<>((terms.size() + 1) / 2);
+            for (int i = 0; i < terms.size(); i += 2) {
+                merged.add(i + 1 < terms.size() ? terms.get(i).union(terms.get(i + 1)) : terms.get(i));
+            }
+            terms = merged;
+        }
+        return terms.get(0);
+    }
+
+    // Highest scores first, lower id first among equal scores
+    private static List<Long> top(Posting result, int limit) {
+        long[] ids = result.ids();
+        float[] scores = result.weights();
+        Comparator<Integer> ranking = (a, b) -> {
+            int byScore = Float.compare(scores[a], scores[b]);
+            return byScore != 0 ? byScore : Long.compare(ids[b], ids[a]);
+        };
+
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.min(limit, ids.length) + 1, ranking);
+        for (int i = 0; i < ids.length; i++) {
+            if (top.size() < limit) {
+                top.add(i);
+            } else if (ranking.compare(i, top.peek()) > 0) {
+                top.poll();
+                top.add(i);
+            }
+        }
+
+        Long[] ranked = new Long[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = ids[top.poll()];
+        }
+        return Arrays.asList(ranked);
+    }
+
+    private synchronized void addBuilt(List<ProductDTO> products) {
+        Map<Long, Map<String, Float>> documents = new LinkedHashMap<>();
+        for (ProductDTO product : products) {
+            if (!touchedDuringBuild.contains(product.getId())) {
+                documents.put(product.getId(), termWeights(product.getTitle(), product.getCategory(), product.getDescription()));
+            }
+        }
+        apply(documents);
+    }
+
+    // Replaces the terms of every given product (null removes it) and rebuilds each touched posting once
+    private void apply(Map<Long, Map<String, Float>> documents) {
+        Map<String, PostingUpdate> updates = new HashMap<>();
+        documents.forEach((id, weights) -> {
+            Set<String> previous = documentTerms.remove(id);
+            if (previous != null) {
+                for (String term : previous) {
+                    updates.computeIfAbsent(term, key -> new PostingUpdate()).removed.add(id);
+                }
+            }
+            if (weights != null) {
+                weights.forEach((term, weight) -> updates.computeIfAbsent(term, key -> new PostingUpdate()).added.put(id, weight));
+                documentTerms.put(id, Set.copyOf(weights.keySet()));
+            }
+        });
+        updates.forEach((term, update) -> postings.compute(term, (key, current) -> update.applyTo(current)));
+    }
+
+    private static Map<String, Float> termWeights(String title, String category, String description) {
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, title, TITLE_WEIGHT);
+        addTerms(weights, category, CATEGORY_WEIGHT);
+        addTerms(weights, description, DESCRIPTION_WEIGHT);
+        return weights;
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Product ids in ascending order with their weights; never modified once published
+    private record Posting(long[] ids, float[] weights) {
+
+        static final Posting EMPTY = new Posting(new long[0], new float[0]);
+
+        int size() {
+            return ids.length;
+        }
+
+        Posting scaled(float factor) {
+            float[] scaled = new float[weights.length];
+            for (int i = 0; i < weights.length; i++) {
+                scaled[i] = weights[i] * factor;
+            }
+            return new Posting(ids, scaled);
+        }
+
+        // Ids in either posting; an id in both keeps the higher weight
+        Posting union(Posting other) {
+            long[] mergedIds = new long[size() + other.size()];
+            float[] mergedWeights = new float[mergedIds.length];
+            int i = 0, j = 0, n = 0;
+            while (i < size() || j < other.size()) {
+                if (j == other.size() || (i < size() && ids[i] < other.ids[j])) {
+                    mergedIds[n] = ids[i];
+                    mergedWeights[n++] = weights[i++];
+                } else if (i == size() || other.ids[j] < ids[i]) {
+                    mergedIds[n] = other.ids[j];
+                    mergedWeights[n++] = other.weights[j++];
+                } else {
+                    mergedIds[n] = ids[i];
+                    mergedWeights[n++] = Math.max(weights[i++], other.weights[j++]);
+                }
+            }
+            return new Posting(Arrays.copyOf(mergedIds, n), Arrays.copyOf(mergedWeights, n));
+        }
+
+        // Ids in both postings with their weights summed; binary search keeps it cheap when this one is much smaller
+        Posting intersect(Posting other) {
+            long[] commonIds = new long[size()];
+            float[] commonWeights = new float[size()];
+            int n = 0;
+            int from = 0;
+            for (int i = 0; i < size() && from < other.size(); i++) {
+                int found = Arrays.binarySearch(other.ids, from, other.size(), ids[i]);
+                if (found >= 0) {
+                    commonIds[n] = ids[i];
+                    commonWeights[n++] = weights[i] + other.weights[found];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return new Posting(Arrays.copyOf(commonIds, n), Arrays.copyOf(commonWeights, n));
+        }
+    }
+
+    // Changes to one term's posting collected over a batch of products
+    private static final class PostingUpdate {
+
+        private final Set<Long> removed = new HashSet<>();
+        private final Map<Long, Float> added = new HashMap<>();
+
+        // The new posting, or null when no product is left under the term
+        Posting applyTo(Posting current) {
+            long[] addedIds = added.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            long[] ids = current == null ? new long[0] : current.ids();
+            float[] weights = current == null ? new float[0] : current.weights();
+
+            long[] mergedIds = new long[ids.length + addedIds.length];
+            float[] mergedWeights = new float[mergedIds.length];
+            int i = 0, j = 0, n = 0;
+            while (i < ids.length || j < addedIds.length) {
+                if (j == addedIds.length || (i < ids.length && ids[i] < addedIds[j])) {
+                    if (!removed.contains(ids[i])) {
+                        mergedIds[n] = ids[i];
+                        mergedWeights[n++] = weights[i];
+                    }
+                    i++;
+                } else {
+                    // An added id replaces the old entry for the same product
+                    if (i < ids.length && ids[i] == addedIds[j]) {
+                        i++;
+                    }
+                    mergedIds[n] = addedIds[j];
+                    mergedWeights[n++] = added.get(addedIds[j++]);
+                }
+            }
+            return n == 0 ? null : new Posting(Arrays.copyOf(mergedIds, n), Arrays.copyOf(mergedWeights, n));
+        }
+    }
+}
@@ -1,20 +1,56 @@
 package com.RealShopAPI.services;
 
+import com.RealShopAPI.dto.BatchItemResultDTO;
+import com.RealShopAPI.dto.CursorPageDTO;
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.exceptions.InvalidCursorException;
+import com.RealShopAPI.exceptions.InvalidPriceRangeException;
 import com.RealShopAPI.exceptions.ProductNotFoundException;
 import com.RealShopAPI.models.Product;
 import com.RealShopAPI.repositories.ProductRepository;
+import com.RealShopAPI.repositories.ProductSpecifications;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final CategoryService categoryService;
+    private final ProductPriceIndex productPriceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductCache productCache,
+                          CategoryService categoryService, ProductPriceIndex productPriceIndex,
+                          ApplicationEventPublisher eventPublisher, Validator validator) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.categoryService = categoryService;
+        this.productPriceIndex = productPriceIndex;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
     }
 
     /**
@@ -24,34 +60,163 @@ public class ProductService {
         return productRepository.findAll();
     }
 
+    /**
+     * Fetches a bounded page of products, optionally filtered by category, projected into DTOs.
+     * Sorting and limiting are pushed into the query so only the requested rows are read.
+     * Results are cached per (category, sort, limit) until a write touches that category.
+     */
+    public List<ProductDTO> getProducts(String category, String sortBy, String sort, Integer limit) {
+        PageRequest pageRequest = PageRequest.of(0, Paging.resolveLimit(limit), resolveSort(sortBy, sort));
+        ProductCache.ProductQuery query =
+                new ProductCache.ProductQuery(category, pageRequest.getSort(), pageRequest.getPageSize());
+
+        return productCache.getProducts(query, () -> {
+            if (category == null) {
+                return productRepository.findAllProjectedBy(pageRequest);
+            }
+            // Unknown or empty categories are answered from the category index without touching products
+            return categoryService.hasProducts(category)
+                    ? productRepository.findProjectedByCategory(category, pageRequest)
+                    : List.of();
+        });
+    }
+
+    /**
+     * Fetches a bounded page of products priced within [minPrice, maxPrice] (a null bound is open),
+     * optionally filtered by category. Price- and id-sorted queries are answered by the in-memory
+     * price index; title-sorted ones, and any query before the index is built, by the database.
+     */
+    public List<ProductDTO> getProductsInPriceRange(String category, Double minPrice, Double maxPrice,
+                                                    String sortBy, String sort, Integer limit) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new InvalidPriceRangeException("minPrice must not be greater than maxPrice.");
+        }
+        int size = Paging.resolveLimit(limit);
+
+        List<ProductDTO> indexed = productPriceIndex.find(category, minPrice, maxPrice, sortBy, sort, size);
+        if (indexed != null) {
+            return indexed;
+        }
+        Specification<Product> spec = ProductSpecifications.inCategory(category)
+                .and(ProductSpecifications.priceBetween(minPrice, maxPrice));
+        return productRepository.findProjected(spec, resolveSort(sortBy, sort), size);
+    }
+
+    /**
+     * Streams every product (optionally one category) in id order to the given action.
+     * Rows are read with a JDBC fetch size straight into DTOs, so the persistence context stays empty.
+     */
+    @Transactional(readOnly = true)
+    public void forEachProduct(String category, Consumer<ProductDTO> action) {
+        try (Stream<ProductDTO> products = category != null
+                ? productRepository.streamProjectedByCategory(category)
+                : productRepository.streamAllProjected()) {
+            products.forEach(action);
+        }
+    }
+
+    /**
+     * Fetches one keyset page of products ordered by (sortBy, id).
+     * The cursor is the nextCursor of the previous page, or null for the first page;
+     * each page costs an index seek plus the page itself, however deep it is.
+     */
+    public CursorPageDTO<ProductDTO> getProductPage(String category, String sortBy, String sort, Integer limit, String cursor) {
+        Sort order = resolveSort(sortBy, sort);
+        Sort.Order primary = order.iterator().next();
+        String field = primary.getProperty();
+        int size = Paging.resolveLimit(limit);
+
+        Specification<Product> spec = ProductSpecifications.inCategory(category);
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor position = PageCursor.decode(cursor, field, primary.getDirection());
+            spec = spec.and(ProductSpecifications.after(field, primary.getDirection(), parseKey(field, position.key()), position.id()));
+        }
+
+        // Read one extra row to find out whether another page exists
+        List<ProductDTO> rows = productRepository.findProjected(spec, order, size + 1);
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(rows, null);
+        }
+
+        List<ProductDTO> page = rows.subList(0, size);
+        ProductDTO last = page.get(size - 1);
+        String nextCursor = new PageCursor(field, primary.getDirection(), last.getId(), String.valueOf(keyOf(field, last))).encode();
+        return new CursorPageDTO<>(page, nextCursor);
+    }
+
+    private static Object keyOf(String field, ProductDTO product) {
+        return switch (field) {
+            case "price" -> product.getPrice();
+            case "title" -> product.getTitle();
+            default -> product.getId();
+        };
+    }
+
+    private static Comparable<?> parseKey(String field, String key) {
+        try {
+            return switch (field) {
+                case "price" -> Double.valueOf(key);
+                case "title" -> key;
+                default -> Long.valueOf(key);
+            };
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException("Malformed cursor.");
+        }
+    }
+
+    /**
+     * Builds the sort for a listing: by price or title when requested, otherwise by id.
+     * The id is always appended as a tie-breaker so pages are stable.
+     */
+    static Sort resolveSort(String sortBy, String sort) {
+        Sort.Direction direction = "desc".equalsIgnoreCase(sort) ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        if ("price".equalsIgnoreCase(sortBy) || "title".equalsIgnoreCase(sortBy)) {
+            return Sort.by(direction, sortBy.toLowerCase()).and(Sort.by(direction, "id"));
+        }
+        return Sort.by(direction, "id");
+    }
+
     /**
      * Fetches a product by its ID.
      * Throws ProductNotFoundException if the product does not exist.
      */
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found."));
+        Product product = productCache.getProduct(id, key -> productRepository.findById(key).orElse(null));
+        if (product == null) {
+            throw new ProductNotFoundException("Product with ID " + id + " not found.");
+        }
+        return product;
     }
 
     /**
-     * Fetches all distinct categories from the repository.
+     * Fetches the given products keyed by id, from the cache where possible and with one
+     * batched query for the rest. Unknown ids are left out.
      */
-    public List<String> getAllCategories() {
-        return productRepository.findDistinctCategories();
+    public Map<Long, Product> getProductsById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return productCache.getProducts(ids, missing -> productRepository.findAllById(missing).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity())));
     }
 
     /**
-     * Fetches products by category.
+     * Fetches all categories that contain products, from the category index.
      */
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+    public List<String> getAllCategories() {
+        return productCache.getCategories(categoryService::getCategoryNames);
     }
 
     /**
      * Creates a batch of products in the repository.
      */
+    @Transactional
     public List<Product> createProducts(List<Product> products) {
-        return productRepository.saveAll(products);
+        List<Product> createdProducts = productRepository.saveAll(products);
+        eventPublisher.publishEvent(new ProductsChangedEvent(
+                createdProducts.stream().map(ProductChange::created).toList()));
+        return createdProducts;
     }
 
     /**
@@ -59,7 +224,9 @@ public class ProductService {
      */
     @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product createdProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(ProductChange.created(createdProduct)));
+        return createdProduct;
     }
 
     /**
@@ -71,6 +238,8 @@ public class ProductService {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found."));
 
+        String previousCategory = existingProduct.getCategory();
+
         // Update product fields
         existingProduct.setTitle(updatedProduct.getTitle());
         existingProduct.setPrice(updatedProduct.getPrice());
@@ -78,7 +247,9 @@ public class ProductService {
         existingProduct.setImage(updatedProduct.getImage());
         existingProduct.setCategory(updatedProduct.getCategory());
 
-        return productRepository.save(existingProduct);
+        Product savedProduct = productRepository.save(existingProduct);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(ProductChange.updated(previousCategory, savedProduct)));
+        return savedProduct;
     }
 
     /**
@@ -87,9 +258,85 @@ public class ProductService {
      */
     @Transactional
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new ProductNotFoundException("Product with ID " + id + " not found.");
+        Product existingProduct = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found."));
+        productRepository.delete(existingProduct);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(ProductChange.deleted(id, existingProduct.getCategory())));
+    }
+
+    /**
+     * Applies many partial updates in one transaction: the non-null fields of each patch replace
+     * the product's values. Products are loaded with one query and written as batched updates.
+     * Patches that would make a product invalid are skipped and reported, as are unknown ids.
+     */
+    @Transactional
+    public List<BatchItemResultDTO<Product>> updateProducts(List<ProductDTO> patches) {
+        List<Long> ids = Paging.resolveBatchIds(patches.stream().map(ProductDTO::getId).toList());
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Map<Long, String> previousCategories = new LinkedHashMap<>();
+        List<BatchItemResultDTO<Product>> results = new ArrayList<>(patches.size());
+        for (ProductDTO patch : patches) {
+            Product existing = products.get(patch.getId());
+            if (existing == null) {
+                results.add(BatchItemResultDTO.notFound(patch.getId()));
+                continue;
+            }
+
+            Product candidate = new Product(existing.getId(),
+                    patch.getTitle() != null ? patch.getTitle() : existing.getTitle(),
+                    patch.getPrice() != null ? patch.getPrice() : existing.getPrice(),
+                    patch.getDescription() != null ? patch.getDescription() : existing.getDescription(),
+                    patch.getImage() != null ? patch.getImage() : existing.getImage(),
+                    patch.getCategory() != null ? patch.getCategory() : existing.getCategory());
+            Set<ConstraintViolation<Product>> violations = validator.validate(candidate);
+            if (!violations.isEmpty()) {
+                results.add(BatchItemResultDTO.invalid(patch.getId(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .collect(Collectors.joining(", "))));
+                continue;
+            }
+
+            previousCategories.putIfAbsent(existing.getId(), existing.getCategory());
+            existing.setTitle(candidate.getTitle());
+            existing.setPrice(candidate.getPrice());
+            existing.setDescription(candidate.getDescription());
+            existing.setImage(candidate.getImage());
+            existing.setCategory(candidate.getCategory());
+            results.add(BatchItemResultDTO.ok(existing.getId(), existing));
+        }
+
+        if (!previousCategories.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(previousCategories.entrySet().stream()
+                    .map(entry -> ProductChange.updated(entry.getValue(), products.get(entry.getKey())))
+                    .toList()));
+        }
+        return results;
+    }
+
+    /**
+     * Deletes many products with one lookup and one set-based DELETE, reporting unknown ids.
+     */
+    @Transactional
+    public List<BatchItemResultDTO<Void>> deleteProducts(Collection<Long> ids) {
+        List<Long> uniqueIds = Paging.resolveBatchIds(ids);
+        Map<Long, String> categories = new HashMap<>();
+        for (Object[] row : productRepository.findCategoriesByIdIn(uniqueIds)) {
+            categories.put((Long) row[0], (String) row[1]);
+        }
+
+        if (!categories.isEmpty()) {
+            productRepository.deleteAllByIdInBatch(categories.keySet());
+            eventPublisher.publishEvent(new ProductsChangedEvent(categories.entrySet().stream()
+                    .map(entry -> ProductChange.deleted(entry.getKey(), entry.getValue()))
+                    .toList()));
         }
-        productRepository.deleteById(id);
+
+        return uniqueIds.stream()
+                .map(id -> categories.containsKey(id)
+                        ? BatchItemResultDTO.<Void>ok(id, null)
+                        : BatchItemResultDTO.<Void>notFound(id))
+                .toList();
     }
 }
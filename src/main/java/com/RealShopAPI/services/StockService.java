@@ -0,0 +1,308 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.dto.StockDTO;
+import com.RealShopAPI.events.CartChange;
+import com.RealShopAPI.events.CartsChangedEvent;
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.exceptions.InsufficientStockException;
+import com.RealShopAPI.exceptions.InvalidStockException;
+import com.RealShopAPI.exceptions.ProductNotFoundException;
+import com.RealShopAPI.models.StockReservation;
+import com.RealShopAPI.repositories.ProductRepository;
+import com.RealShopAPI.repositories.ProductStockRepository;
+import com.RealShopAPI.repositories.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock of products and the reservations carts hold on it.
+ * <p>
+ * Putting a stock-tracked product in a cart reserves it in the same transaction as the cart
+ * write. Each product's counters are moved with one conditional UPDATE
+ * (available >= quantity), so buyers of a hot product never take a pessimistic lock. A row is
+ * only locked from that statement until the cart transaction commits. A cart write that cannot
+ * be fully reserved fails with InsufficientStockException and rolls back.
+ * Shrinking or deleting a cart releases its reservations. A background task releases the
+ * reservations of carts that have not changed for the reservation TTL.
+ * <p>
+ * The write-behind flusher persists changes that were already acknowledged, so its batches are
+ * reserved on a best-effort basis: lines that cannot be reserved stay in the cart unreserved.
+ * Never lazily initialized, so expiry runs from startup on.
+ */
+@Service
+@Lazy(false)
+public class StockService implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(StockService.class);
+
+    private final ProductStockRepository stockRepository;
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration reservationTtl;
+    private final Duration expiryInterval;
+    private final int expiryBatchSize;
+    private final boolean bestEffort;
+
+    private ScheduledExecutorService expirer;
+
+    public StockService(ProductStockRepository stockRepository, StockReservationRepository reservationRepository,
+                        ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                        @Value("${realshop.stock.reservation-ttl:30m}") Duration reservationTtl,
+                        @Value("${realshop.stock.expiry-interval:1m}") Duration expiryInterval,
+                        @Value("${realshop.stock.expiry-batch-size:500}") int expiryBatchSize,
+                        @Value("${realshop.carts.write-behind.enabled:false}") boolean writeBehind) {
+        this.stockRepository = stockRepository;
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservationTtl = reservationTtl;
+        this.expiryInterval = expiryInterval;
+        this.expiryBatchSize = expiryBatchSize;
+        this.bestEffort = writeBehind;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        expirer = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "stock-reservation-expiry"));
+        expirer.scheduleWithFixedDelay(this::expireQuietly, expiryInterval.toMillis(), expiryInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        expirer.shutdownNow();
+    }
+
+    /**
+     * Throws ProductNotFoundException if the product does not exist. Untracked products report
+     * null counts.
+     */
+    @Transactional(readOnly = true)
+    public StockDTO getStock(Long productId) {
+        return stockRepository.findByProductId(productId)
+                .map(stock -> new StockDTO(productId, stock.getAvailable(), stock.getReserved()))
+                .orElseGet(() -> {
+                    ensureProductExists(productId);
+                    return new StockDTO(productId, null, null);
+                });
+    }
+
+    /**
+     * Sets the units of a product that can still be put in carts and starts tracking its stock
+     * if it was not tracked yet. Existing reservations are kept.
+     */
+    @Transactional
+    public StockDTO setAvailable(Long productId, Long available) {
+        if (available == null || available < 0) {
+            throw new InvalidStockException("Available stock is required and cannot be negative.");
+        }
+        ensureProductExists(productId);
+        if (stockRepository.setAvailable(productId, available) == 0) {
+            stockRepository.insertIfAbsent(productId);
+            stockRepository.setAvailable(productId, available);
+        }
+        return getStock(productId);
+    }
+
+    /**
+     * Turns the net item changes of a batch of cart writes into reservations and releases, inside
+     * the writing transaction. Stock rows are updated in product id order to keep lock order
+     * consistent across writers.
+     */
+    @EventListener
+    @Transactional
+    public void onCartsChanged(CartsChangedEvent event) {
+        Set<Long> productIds = new HashSet<>();
+        event.changes().forEach(change -> productIds.addAll(change.quantityDeltas().keySet()));
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Set<Long> tracked = new HashSet<>(stockRepository.findTrackedProductIds(productIds));
+        if (tracked.isEmpty()) {
+            return;
+        }
+
+        // Quantity to reserve (positive) or release (negative) per cart and product
+        Map<Long, Map<Long, Long>> reservationDeltas = new TreeMap<>();
+        Set<Long> deletedCarts = new HashSet<>();
+        for (CartChange change : event.changes()) {
+            change.quantityDeltas().forEach((productId, delta) -> {
+                if (tracked.contains(productId)) {
+                    reservationDeltas.computeIfAbsent(change.cartId(), cartId -> new TreeMap<>())
+                            .merge(productId, (long) delta, Long::sum);
+                }
+            });
+            if (change.cartDelta() < 0) {
+                deletedCarts.add(change.cartId());
+            }
+        }
+
+        capReleases(reservationDeltas);
+
+        Map<Long, long[]> perProduct = new TreeMap<>();
+        reservationDeltas.values().forEach(products -> products.forEach((productId, delta) -> {
+            long[] sums = perProduct.computeIfAbsent(productId, id -> new long[2]);
+            sums[delta > 0 ? 0 : 1] += Math.abs(delta);
+        }));
+        perProduct.forEach((productId, sums) -> {
+            if (!applyToStock(productId, sums[0], sums[1])) {
+                // Best effort: keep the releases, drop the reservations that did not fit
+                reservationDeltas.values().forEach(products -> products.computeIfPresent(productId,
+                        (id, delta) -> delta > 0 ? null : delta));
+            }
+        });
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(reservationTtl);
+        reservationDeltas.forEach((cartId, products) -> {
+            boolean released = false;
+            for (Map.Entry<Long, Long> entry : products.entrySet()) {
+                long delta = entry.getValue();
+                if (delta == 0) {
+                    continue;
+                }
+                released |= delta < 0;
+                if (reservationRepository.adjustQuantity(cartId, entry.getKey(), delta, expiresAt) == 0 && delta > 0) {
+                    reservationRepository.saveAndFlush(new StockReservation(cartId, entry.getKey(), delta, expiresAt));
+                }
+            }
+            if (released) {
+                reservationRepository.deleteEmpty(cartId);
+            }
+            if (!deletedCarts.contains(cartId)) {
+                reservationRepository.refreshExpiry(cartId, expiresAt);
+            }
+        });
+    }
+
+    // Stock of deleted products is no longer tracked
+    @EventListener
+    @Transactional
+    public void onProductsChanged(ProductsChangedEvent event) {
+        List<Long> deleted = event.changes().stream()
+                .filter(ProductChange::isDeleted)
+                .map(ProductChange::id)
+                .toList();
+        if (!deleted.isEmpty()) {
+            reservationRepository.deleteByProductIdIn(deleted);
+            stockRepository.deleteByProductIdIn(deleted);
+        }
+    }
+
+    /**
+     * Releases reservations whose cart has not changed for the reservation TTL. Each product is
+     * handled in its own short transaction that locks the stock row before the reservations, in
+     * the same order as cart writes. Returns the number of reservations released.
+     */
+    public int expireReservations() {
+        int expired = 0;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<StockReservation> batch = reservationRepository.findExpired(now, PageRequest.of(0, expiryBatchSize));
+
+            Map<Long, List<StockReservation>> byProduct = new TreeMap<>();
+            batch.forEach(reservation -> byProduct.computeIfAbsent(reservation.getProductId(), id -> new ArrayList<>()).add(reservation));
+            for (Map.Entry<Long, List<StockReservation>> entry : byProduct.entrySet()) {
+                expired += transactionTemplate.execute(status -> expire(entry.getKey(), entry.getValue(), now));
+            }
+
+            if (batch.size() < expiryBatchSize) {
+                return expired;
+            }
+        }
+    }
+
+    private int expire(Long productId, List<StockReservation> reservations, LocalDateTime now) {
+        // Releasing nothing still takes the row lock
+        stockRepository.release(productId, 0);
+        long quantity = 0;
+        int count = 0;
+        for (StockReservation reservation : reservations) {
+            if (reservationRepository.deleteExpired(reservation.getId(), reservation.getQuantity(), now) == 1) {
+                quantity += reservation.getQuantity();
+                count++;
+            }
+        }
+        if (quantity > 0) {
+            stockRepository.release(productId, quantity);
+        }
+        return count;
+    }
+
+    private void expireQuietly() {
+        try {
+            int expired = expireReservations();
+            if (expired > 0) {
+                log.info("Released {} expired stock reservations", expired);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Stock reservation expiry failed, will retry", ex);
+        }
+    }
+
+    // A cart can only give back what it holds: releases are capped at its current reservation
+    private void capReleases(Map<Long, Map<Long, Long>> reservationDeltas) {
+        List<Long> releasingCarts = reservationDeltas.entrySet().stream()
+                .filter(entry -> entry.getValue().values().stream().anyMatch(delta -> delta < 0))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (releasingCarts.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<Long, Long>> reserved = new HashMap<>();
+        for (Object[] row : reservationRepository.findQuantitiesByCartIdIn(releasingCarts)) {
+            reserved.computeIfAbsent((Long) row[0], cartId -> new HashMap<>()).put((Long) row[1], ((Number) row[2]).longValue());
+        }
+        releasingCarts.forEach(cartId -> reservationDeltas.get(cartId).replaceAll((productId, delta) -> delta >= 0
+                ? delta
+                : -Math.min(-delta, reserved.getOrDefault(cartId, Map.of()).getOrDefault(productId, 0L))));
+    }
+
+    // Applies the net of a product's reservations and releases; false if best effort dropped the reservations
+    private boolean applyToStock(Long productId, long toReserve, long toRelease) {
+        long net = toReserve - toRelease;
+        if (net < 0) {
+            stockRepository.release(productId, -net);
+        } else if (net > 0 && stockRepository.reserve(productId, net) == 0) {
+            if (!bestEffort) {
+                throw new InsufficientStockException("Not enough stock for product " + productId + ".");
+            }
+            log.warn("Not enough stock to reserve {} units of product {}, leaving them unreserved", net, productId);
+            if (toRelease > 0) {
+                stockRepository.release(productId, toRelease);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void ensureProductExists(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException("Product with ID " + productId + " not found.");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+-- Initial schema. Written to be idempotent so it can also be applied (with baseline-on-migrate)
+-- to databases that were previously created by Hibernate's ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS products (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title       VARCHAR(100)     NOT NULL,
+    price       DOUBLE PRECISION NOT NULL,
+    description VARCHAR(500),
+    image       VARCHAR(255),
+    category    VARCHAR(50)      NOT NULL,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS carts (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    version    BIGINT DEFAULT 0
+);
+
+-- Databases created before optimistic locking was added lack the version column
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS cart_items (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cart_id    BIGINT,
+    product_id BIGINT,
+    quantity   INTEGER NOT NULL,
+    CONSTRAINT fk_cart_items_cart FOREIGN KEY (cart_id) REFERENCES carts (id)
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name          VARCHAR(255) NOT NULL,
+    product_count BIGINT       NOT NULL,
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS cart_daily_stats (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    stats_date DATE   NOT NULL,
+    carts      BIGINT NOT NULL,
+    CONSTRAINT uk_cart_daily_stats_day UNIQUE (stats_date)
+);
+
+CREATE TABLE IF NOT EXISTS product_daily_stats (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    stats_date DATE   NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity   BIGINT NOT NULL,
+    CONSTRAINT uk_product_daily_stats_day_product UNIQUE (stats_date, product_id)
+);
+
+-- ProductRepository: findByCategory / category listings and category counts, ordered by id
+CREATE INDEX IF NOT EXISTS idx_products_category ON products (category, id);
+-- ProductRepository: findExpensiveProducts (price > x) and price-sorted listings and pages
+CREATE INDEX IF NOT EXISTS idx_products_price ON products (price, id);
+-- Title-sorted listings and pages
+CREATE INDEX IF NOT EXISTS idx_products_title ON products (title, id);
+
+-- CartRepository: findByUserId
+CREATE INDEX IF NOT EXISTS idx_carts_user_id ON carts (user_id);
+-- CartRepository: findByCreatedAtBetween, the created-at keyset pages and streamIds
+CREATE INDEX IF NOT EXISTS idx_carts_created_at ON carts (created_at, id);
+
+-- Loading the items of one or many carts (fetch joins and IN batches on cart_id)
+CREATE INDEX IF NOT EXISTS idx_cart_items_cart_id ON cart_items (cart_id, product_id);
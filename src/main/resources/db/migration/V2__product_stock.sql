@@ -0,0 +1,23 @@
+-- Stock of products and the reservations held by carts (StockService)
+
+CREATE TABLE product_stock (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    available  BIGINT NOT NULL,
+    reserved   BIGINT NOT NULL,
+    CONSTRAINT uk_product_stock_product UNIQUE (product_id)
+);
+
+CREATE TABLE stock_reservations (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cart_id    BIGINT       NOT NULL,
+    product_id BIGINT       NOT NULL,
+    quantity   BIGINT       NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_stock_reservations_cart_product UNIQUE (cart_id, product_id)
+);
+
+-- StockReservationRepository: findExpired
+CREATE INDEX idx_stock_reservations_expires_at ON stock_reservations (expires_at, id);
+-- StockReservationRepository: deleteByProductIdIn when products are deleted
+CREATE INDEX idx_stock_reservations_product_id ON stock_reservations (product_id);
@@ -0,0 +1,10 @@
+-- Product ids come from a sequence instead of an identity column, so Hibernate can batch product
+-- inserts (an identity id is only known after its own INSERT). Each sequence value v stands for
+-- the block of ids v - 49 .. v (Product.ID_ALLOCATION_SIZE, Hibernate's pooled optimizer), so the
+-- sequence restarts one block past the highest id in use.
+
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE products_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM products);
+
+-- Inserts that leave out the id would take values from the old identity counter and collide
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY;
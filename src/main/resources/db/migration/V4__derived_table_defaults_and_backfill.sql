@@ -0,0 +1,30 @@
+-- Counters default to zero, so a missing row can be created with MERGE ... KEY on its key columns
+-- alone, inside the writing transaction. H2 makes a MERGE that meets a concurrent insert of the
+-- same key wait for it and then update the existing row, instead of failing the transaction.
+
+ALTER TABLE categories ALTER COLUMN product_count SET DEFAULT 0;
+ALTER TABLE cart_daily_stats ALTER COLUMN carts SET DEFAULT 0;
+ALTER TABLE product_daily_stats ALTER COLUMN quantity SET DEFAULT 0;
+ALTER TABLE product_stock ALTER COLUMN available SET DEFAULT 0;
+ALTER TABLE product_stock ALTER COLUMN reserved SET DEFAULT 0;
+
+-- The category index and the cart aggregates are recomputed from their source tables here,
+-- once per database, rather than on application start only when they were empty. This also
+-- repairs tables left partially filled.
+
+UPDATE categories SET product_count = 0;
+MERGE INTO categories (name, product_count) KEY (name)
+    SELECT category, COUNT(*) FROM products GROUP BY category;
+
+UPDATE cart_daily_stats SET carts = 0;
+MERGE INTO cart_daily_stats (stats_date, carts) KEY (stats_date)
+    SELECT CAST(created_at AS DATE), COUNT(*) FROM carts
+    WHERE created_at IS NOT NULL
+    GROUP BY CAST(created_at AS DATE);
+
+UPDATE product_daily_stats SET quantity = 0;
+MERGE INTO product_daily_stats (stats_date, product_id, quantity) KEY (stats_date, product_id)
+    SELECT CAST(c.created_at AS DATE), i.product_id, SUM(i.quantity) FROM carts c
+    JOIN cart_items i ON i.cart_id = c.id
+    WHERE c.created_at IS NOT NULL AND i.product_id IS NOT NULL
+    GROUP BY CAST(c.created_at AS DATE), i.product_id;
@@ -0,0 +1,100 @@
+package com.RealShopAPI.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Thousands of virtual threads behind the bulkhead, each holding a connection while it borrows a second one
+class BulkheadDataSourceTest {
+
+    private static final int POOL_SIZE = 6;
+    private static final int PERMITS = 4;
+    private static final int CALLERS = 2000;
+
+    private HikariDataSource pool;
+    private BulkheadDataSource bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:bulkhead-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(Duration.ofSeconds(5).toMillis());
+        pool = new HikariDataSource(config);
+        bulkhead = new BulkheadDataSource(pool, PERMITS, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void nestedConnectionsDoNotStarveTheBulkhead() throws Exception {
+        AtomicInteger outerInUse = new AtomicInteger();
+        AtomicInteger maxOuterInUse = new AtomicInteger();
+
+        List<Future<?>> calls = new ArrayList<>(CALLERS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                calls.add(executor.submit(() -> {
+                    try (Connection outer = bulkhead.getConnection()) {
+                        maxOuterInUse.accumulateAndGet(outerInUse.incrementAndGet(), Math::max);
+                        query(outer);
+                        // Like a REQUIRES_NEW transaction started while the caller's one is open
+                        try (Connection nested = bulkhead.getConnection()) {
+                            query(nested);
+                        }
+                        outerInUse.decrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        // Any acquire timeout (bulkhead or pool) surfaces here as an ExecutionException
+        for (Future<?> call : calls) {
+            call.get();
+        }
+        assertThat(maxOuterInUse.get()).isLessThanOrEqualTo(PERMITS);
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(PERMITS);
+    }
+
+    @Test
+    void permitIsReturnedWhenTheFirstConnectionCloses() throws SQLException {
+        Connection first = bulkhead.getConnection();
+        Connection second = bulkhead.getConnection();
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(PERMITS - 1);
+
+        second.close();
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(PERMITS - 1);
+        first.close();
+        first.close();
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(PERMITS);
+    }
+
+    private static void query(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.RealShopAPI.controllers;
+
+import com.RealShopAPI.models.Product;
+import com.RealShopAPI.repositories.CartRepository;
+import com.RealShopAPI.services.ProductService;
+import com.RealShopAPI.services.StockService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Cart item writes through the HTTP layer: every write succeeds, bumps the cart version and reserves stock
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cart-item-endpoints;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class CartItemEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Test
+    void itemWritesUpdateTheCartAndItsVersion() throws Exception {
+        Long tracked = productService.createProduct(new Product(null, "Tracked", 5.0, null, "default-image.png", "books")).getId();
+        Long untracked = productService.createProduct(new Product(null, "Untracked", 7.0, null, "default-image.png", "books")).getId();
+        stockService.setAvailable(tracked, 10L);
+
+        long cartId = send(post("/carts"), "{\"userId\":1,\"products\":[]}").get("id").asLong();
+        long version = cartRepository.findVersionById(cartId).orElseThrow();
+
+        JsonNode cart = send(post("/carts/" + cartId + "/items"), "{\"productId\":" + tracked + ",\"quantity\":3}");
+        assertThat(cart.get("products")).hasSize(1);
+        version = assertVersionIncreased(cartId, version);
+        assertThat(stockService.getStock(tracked).getAvailable()).isEqualTo(7L);
+
+        // Quantity-only change: no cart column differs, the version must still move
+        send(put("/carts/" + cartId + "/items/" + tracked), "{\"quantity\":4}");
+        version = assertVersionIncreased(cartId, version);
+        assertThat(stockService.getStock(tracked).getReserved()).isEqualTo(4L);
+
+        cart = send(put("/carts/" + cartId), "{\"userId\":1,\"products\":[{\"productId\":" + tracked
+                + ",\"quantity\":2},{\"productId\":" + untracked + ",\"quantity\":1}]}");
+        assertThat(cart.get("products")).hasSize(2);
+        version = assertVersionIncreased(cartId, version);
+
+        cart = send(delete("/carts/" + cartId + "/items/" + tracked), null);
+        assertThat(cart.get("products")).hasSize(1);
+        assertVersionIncreased(cartId, version);
+        assertThat(stockService.getStock(tracked).getAvailable()).isEqualTo(10L);
+        assertThat(stockService.getStock(tracked).getReserved()).isZero();
+    }
+
+    private JsonNode send(MockHttpServletRequestBuilder request, String body) throws Exception {
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(body);
+        }
+        String response = mockMvc.perform(request.accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private long assertVersionIncreased(long cartId, long previous) {
+        long version = cartRepository.findVersionById(cartId).orElseThrow();
+        assertThat(version).isGreaterThan(previous);
+        return version;
+    }
+}
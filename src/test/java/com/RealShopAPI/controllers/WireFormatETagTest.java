@@ -0,0 +1,107 @@
+package com.RealShopAPI.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// JSON, Smile and CBOR bodies of the same version carry different tags, and every negotiated response varies by Accept
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:wire-format-etags;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class WireFormatETagTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final String CBOR = "application/cbor";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void eachFormatHasItsOwnTag() throws Exception {
+        MockHttpServletResponse json = fetch("/products/categories", MediaType.APPLICATION_JSON_VALUE, null);
+        MockHttpServletResponse smile = fetch("/products/categories", SMILE, null);
+        MockHttpServletResponse cbor = fetch("/products/categories", CBOR, null);
+
+        assertThat(json.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(smile.getContentType()).isEqualTo(SMILE);
+        assertThat(cbor.getContentType()).isEqualTo(CBOR);
+
+        String version = json.getHeader(HttpHeaders.ETAG).replace("\"", "");
+        assertThat(smile.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + version + "-smile\"");
+        assertThat(cbor.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + version + "-cbor\"");
+        for (MockHttpServletResponse response : new MockHttpServletResponse[]{json, smile, cbor}) {
+            assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+        }
+    }
+
+    @Test
+    void tagFollowsTheFormatTheConvertersPick() throws Exception {
+        assertTagMatchesBody(null);
+        assertTagMatchesBody("*/*");
+        assertTagMatchesBody("application/*");
+        assertTagMatchesBody(CBOR + ";q=0.5, " + SMILE);
+        assertTagMatchesBody("text/html, " + CBOR + ";q=0.9");
+    }
+
+    @Test
+    void validatorOfOneFormatDoesNotMatchAnother() throws Exception {
+        String jsonTag = fetch("/products/categories", MediaType.APPLICATION_JSON_VALUE, null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse otherFormat = fetch("/products/categories", CBOR, jsonTag);
+        assertThat(otherFormat.getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse sameFormat = fetch("/products/categories", CBOR, otherFormat.getHeader(HttpHeaders.ETAG));
+        assertThat(sameFormat.getStatus()).isEqualTo(304);
+        assertThat(sameFormat.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void cartTagsIncludeTheFormat() throws Exception {
+        String created = mockMvc.perform(post("/carts").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":1,\"products\":[]}"))
+                .andReturn().getResponse().getContentAsString();
+        String id = created.replaceAll(".*\"id\":(\\d+).*", "$1");
+
+        MockHttpServletResponse json = fetch("/carts/" + id, MediaType.APPLICATION_JSON_VALUE, null);
+        MockHttpServletResponse smile = fetch("/carts/" + id, SMILE, null);
+        assertThat(smile.getHeader(HttpHeaders.ETAG)).isEqualTo(json.getHeader(HttpHeaders.ETAG).replaceFirst("\"$", "-smile\""));
+        assertThat(smile.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+
+        assertThat(fetch("/carts/" + id, SMILE, json.getHeader(HttpHeaders.ETAG)).getStatus()).isEqualTo(200);
+        assertThat(fetch("/carts/" + id, SMILE, smile.getHeader(HttpHeaders.ETAG)).getStatus()).isEqualTo(304);
+    }
+
+    private void assertTagMatchesBody(String accept) throws Exception {
+        MockHttpServletResponse response = fetch("/products/categories", accept, null);
+        String tag = response.getHeader(HttpHeaders.ETAG);
+        String contentType = response.getContentType();
+        if (contentType.startsWith(SMILE)) {
+            assertThat(tag).endsWith("-smile\"");
+        } else if (contentType.startsWith(CBOR)) {
+            assertThat(tag).endsWith("-cbor\"");
+        } else {
+            assertThat(contentType).startsWith(MediaType.APPLICATION_JSON_VALUE);
+            assertThat(tag).doesNotContain("-smile").doesNotContain("-cbor");
+        }
+    }
+
+    private MockHttpServletResponse fetch(String path, String accept, String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder request = get(path);
+        if (accept != null) {
+            request.header(HttpHeaders.ACCEPT, accept);
+        }
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
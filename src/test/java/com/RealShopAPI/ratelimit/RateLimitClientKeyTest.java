@@ -0,0 +1,65 @@
+package com.RealShopAPI.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Clients behind a trusted proxy get a bucket per forwarded address, or per issued API key; unknown keys count as none
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:rate-limit-client-key;DB_CLOSE_DELAY=-1",
+        "realshop.rate-limit.tokens-per-second=0.01",
+        "realshop.rate-limit.burst=2",
+        "realshop.rate-limit.api-keys=issued-key-1, issued-key-2"
+})
+class RateLimitClientKeyTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void forwardedClientsDoNotShareTheProxyBucket() {
+        assertThat(get("203.0.113.1")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(get("203.0.113.1")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(get("203.0.113.1")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        assertThat(get("203.0.113.2")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void rotatingUnknownKeysKeepsTheAddressBucket() {
+        assertThat(get("203.0.113.3", "made-up-1")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(get("203.0.113.3", "made-up-2")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(get("203.0.113.3", "made-up-3")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(get("203.0.113.3", "issued-key-1")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void issuedKeysHaveTheirOwnBucketWhereverTheyComeFrom() {
+        assertThat(get("203.0.113.4", "issued-key-2")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(get("203.0.113.5", "issued-key-2")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(get("203.0.113.6", "issued-key-2")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    // The test client connects from loopback, which Tomcat trusts as a proxy by default
+    private HttpStatusCode get(String forwardedFor) {
+        return get(forwardedFor, null);
+    }
+
+    private HttpStatusCode get(String forwardedFor, String apiKey) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", forwardedFor);
+        if (apiKey != null) {
+            headers.set("X-API-Key", apiKey);
+        }
+        return restTemplate.exchange("/products/1", HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                .getStatusCode();
+    }
+}
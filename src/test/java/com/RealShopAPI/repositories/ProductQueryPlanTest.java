@@ -0,0 +1,223 @@
+package com.RealShopAPI.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Product and cart repository queries, as Hibernate generates them, are answered from the Flyway indexes
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plans;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.RealShopAPI.repositories.ProductQueryPlanTest$RecordingInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductQueryPlanTest {
+
+    private static final int PRODUCTS = 2_000;
+    private static final int CARTS = 2_000;
+    private static final String[] CATEGORIES = {"electronics", "jewelery", "men's clothing", "women's clothing", "books"};
+    private static final Sort BY_PRICE = Sort.by("price").and(Sort.by("id"));
+    private static final Sort BY_TITLE_DESC = Sort.by(Sort.Direction.DESC, "title").and(Sort.by(Sort.Direction.DESC, "id"));
+    // idx_cart_items_cart_id or H2's own foreign-key index on cart_items.cart_id
+    private static final String CART_ITEMS_BY_CART = "(IDX_CART_ITEMS_CART_ID|FK_CART_ITEMS_CART_INDEX_\\w+)";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            rows.add(new Object[]{i + 1, "Product " + i, 1 + i % 1000, CATEGORIES[i % CATEGORIES.length], now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, title, price, category, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        // One cart an hour going back from now, three items each
+        List<Object[]> carts = new ArrayList<>(CARTS);
+        List<Object[]> items = new ArrayList<>(CARTS * 3);
+        for (int i = 0; i < CARTS; i++) {
+            LocalDateTime createdAt = now.minusHours(i);
+            carts.add(new Object[]{i + 1, 1 + i % 200, createdAt, createdAt});
+            for (int j = 0; j < 3; j++) {
+                items.add(new Object[]{i + 1, 1 + (i * 3 + j) % PRODUCTS, 1});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO carts (id, user_id, created_at, updated_at, version) VALUES (?, ?, ?, ?, 0)", carts);
+        jdbcTemplate.batchUpdate("INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (?, ?, ?)", items);
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void listingsReadTheSortIndexInOrder() {
+        String byPrice = explain(() -> productRepository.findAllProjectedBy(PageRequest.of(0, 10, BY_PRICE)), 10);
+        assertThat(byPrice).contains("IDX_PRODUCTS_PRICE").contains("index sorted");
+
+        String byTitle = explain(() -> productRepository.findAllProjectedBy(PageRequest.of(0, 10, BY_TITLE_DESC)), 10);
+        assertThat(byTitle).contains("IDX_PRODUCTS_TITLE").contains("index sorted");
+    }
+
+    @Test
+    void categoryListingsSeekTheCategoryIndex() {
+        String byId = explain(() -> productRepository.findProjectedByCategory("books", PageRequest.of(0, 10, Sort.by("id"))),
+                "books", 10);
+        assertThat(byId).contains("IDX_PRODUCTS_CATEGORY: CATEGORY = ?1");
+
+        String byPrice = explain(() -> productRepository.findProjectedByCategory("books", PageRequest.of(0, 10, BY_PRICE)),
+                "books", 10);
+        assertThat(byPrice).contains("IDX_PRODUCTS_CATEGORY: CATEGORY = ?1");
+    }
+
+    @Test
+    void cursorPagesSeekPastTheCursor() {
+        String byPrice = explain(() -> productRepository.findProjected(
+                        ProductSpecifications.after("price", Sort.Direction.ASC, 10.0, 5L), BY_PRICE, 11),
+                10.0, 10.0, 10.0, 5L, 11);
+        assertThat(byPrice).contains("IDX_PRODUCTS_PRICE: PRICE >= ?1").contains("index sorted");
+
+        String byTitle = explain(() -> productRepository.findProjected(
+                        ProductSpecifications.after("title", Sort.Direction.DESC, "Product 5", 5L), BY_TITLE_DESC, 11),
+                "Product 5", "Product 5", "Product 5", 5L, 11);
+        assertThat(byTitle).contains("IDX_PRODUCTS_TITLE: TITLE <= ?1").contains("index sorted");
+
+        String inCategory = explain(() -> productRepository.findProjected(ProductSpecifications.inCategory("books")
+                        .and(ProductSpecifications.after("id", Sort.Direction.ASC, null, 5L)), Sort.by("id"), 11),
+                "books", 5L, 11);
+        assertThat(inCategory).containsPattern("IDX_PRODUCTS_CATEGORY: CATEGORY = \\?1\\s+AND ID > \\?2");
+    }
+
+    @Test
+    void productScansSeekTheirIndexes() {
+        String expensive = explain(() -> productRepository.findExpensiveProducts(990.0), 990.0);
+        assertThat(expensive).contains("IDX_PRODUCTS_PRICE: PRICE > ?1");
+
+        String byIds = explain(() -> productRepository.findCategoriesByIdIn(List.of(1L, 2L, 3L)), 1L, 2L, 3L);
+        assertThat(byIds).containsPattern("PRIMARY_KEY_\\w+: ID IN\\(\\?1, \\?2, \\?3\\)");
+    }
+
+    @Test
+    void productStreamsReadAnIndexInIdOrder() {
+        String all = explain(() -> drain(productRepository.streamAllProjected()));
+        assertThat(all).containsPattern("PRIMARY_KEY_\\w+").contains("index sorted");
+
+        String inCategory = explain(() -> drain(productRepository.streamProjectedByCategory("books")), "books");
+        assertThat(inCategory).contains("IDX_PRODUCTS_CATEGORY: CATEGORY = ?1");
+    }
+
+    @Test
+    void cartLookupsSeekTheirIndexes() {
+        String byUser = explain(() -> cartRepository.findByUserId(7L), 7L);
+        assertThat(byUser).contains("IDX_CARTS_USER_ID: USER_ID = ?1");
+
+        String version = explain(() -> cartRepository.findVersionById(5L), 5L);
+        assertThat(version).containsPattern("PRIMARY_KEY_\\w+: ID = \\?1");
+
+        // Items are joined cart by cart through an index on cart_id
+        String withItems = explain(() -> cartRepository.findByIdWithItems(5L), 5L);
+        assertThat(withItems).containsPattern("PRIMARY_KEY_\\w+: ID = \\?1")
+                .containsPattern(CART_ITEMS_BY_CART + ": CART_ID = C1_0.ID");
+
+        String manyWithItems = explain(() -> cartRepository.findAllWithItemsByIdIn(List.of(1L, 2L, 3L)), 1L, 2L, 3L);
+        assertThat(manyWithItems).containsPattern("PRIMARY_KEY_\\w+: ID IN\\(\\?1, \\?2, \\?3\\)")
+                .containsPattern(CART_ITEMS_BY_CART + ": CART_ID = C1_0.ID");
+
+        String deleteItems = explain(() -> cartRepository.deleteItemsByCartIdIn(List.of(1L, 2L)), 1L, 2L);
+        assertThat(deleteItems).containsPattern(CART_ITEMS_BY_CART + ": CART_ID IN\\(\\?1, \\?2\\)");
+    }
+
+    @Test
+    void cartDateRangesSeekTheCreatedAtIndex() {
+        LocalDateTime start = now.minusHours(48);
+        LocalDateTime end = now.minusHours(24);
+
+        String page = explain(() -> cartRepository.findByCreatedAtBetween(start, end, PageRequest.of(0, 100)), start, end, 100);
+        assertThat(page).containsPattern("IDX_CARTS_CREATED_AT: CREATED_AT >= \\?1\\s+AND CREATED_AT <= \\?2");
+    }
+
+    @Test
+    void cartIdPagesSeekPastTheCursor() {
+        String after = explain(() -> cartRepository.findByIdGreaterThanOrderByIdAsc(100L, PageRequest.of(0, 11)), 100L, 11);
+        assertThat(after).containsPattern("PRIMARY_KEY_\\w+: ID > \\?1").contains("index sorted");
+
+        String before = explain(() -> cartRepository.findByIdLessThanOrderByIdDesc(100L, PageRequest.of(0, 11)), 100L, 11);
+        assertThat(before).containsPattern("PRIMARY_KEY_\\w+: ID < \\?1").contains("index sorted");
+
+        // Pages within a date range are in id order as well: the primary key is read from the cursor on
+        // and the range is checked row by row until the page is full, with no sort
+        LocalDateTime start = now.minusHours(48);
+        LocalDateTime end = now.minusHours(24);
+        String afterInRange = explain(() -> cartRepository.findByCreatedAtBetweenAndIdGreaterThanOrderByIdAsc(start, end,
+                30L, PageRequest.of(0, 11)), start, end, 30L, 11);
+        assertThat(afterInRange).containsPattern("PRIMARY_KEY_\\w+: ID > \\?3").contains("index sorted");
+
+        String beforeInRange = explain(() -> cartRepository.findByCreatedAtBetweenAndIdLessThanOrderByIdDesc(start, end,
+                40L, PageRequest.of(0, 11)), start, end, 40L, 11);
+        assertThat(beforeInRange).containsPattern("PRIMARY_KEY_\\w+: ID < \\?3").contains("index sorted");
+    }
+
+    @Test
+    void cartIdStreamsSeekTheCreatedAtIndexWhenFiltered() {
+        LocalDateTime start = now.minusHours(48);
+        LocalDateTime end = now.minusHours(24);
+
+        String all = explain(() -> drain(cartRepository.streamIds()));
+        assertThat(all).containsPattern("PRIMARY_KEY_\\w+").contains("index sorted");
+
+        String between = explain(() -> drain(cartRepository.streamIdsCreatedBetween(start, end)), start, end);
+        assertThat(between).containsPattern("IDX_CARTS_CREATED_AT: CREATED_AT >= \\?1\\s+AND CREATED_AT <= \\?2");
+
+        String since = explain(() -> drain(cartRepository.streamIdsCreatedSince(end)), end);
+        assertThat(since).contains("IDX_CARTS_CREATED_AT: CREATED_AT >= ?1");
+
+        LocalDateTime oldest = now.minusHours(CARTS - 24);
+        String until = explain(() -> drain(cartRepository.streamIdsCreatedUntil(oldest)), oldest);
+        assertThat(until).contains("IDX_CARTS_CREATED_AT: CREATED_AT <= ?1");
+    }
+
+    private static void drain(Stream<?> rows) {
+        try (rows) {
+            rows.forEach(row -> { });
+        }
+    }
+
+    // Runs the query to capture the SQL Hibernate generates for it, then asks H2 for its plan
+    private String explain(Runnable query, Object... parameters) {
+        RecordingInspector.STATEMENTS.clear();
+        query.run();
+        assertThat(RecordingInspector.STATEMENTS).hasSize(1);
+        return jdbcTemplate.queryForObject("EXPLAIN " + RecordingInspector.STATEMENTS.get(0), String.class, parameters);
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.repositories.CartRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Deleting a cart drops its pending write-behind changes only once the delete has committed
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-delete-write-behind;DB_CLOSE_DELAY=-1",
+        "realshop.carts.write-behind.enabled=true",
+        "realshop.carts.write-behind.log-dir=target/cart-delete-write-behind-${random.uuid}",
+        "realshop.carts.write-behind.flush-interval=1h"})
+class CartDeleteWriteBehindTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartWriteBehindStore writeBehindStore;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void rolledBackDeleteKeepsThePendingCart() {
+        Long id = pendingCart();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cartService.deleteCart(id);
+            status.setRollbackOnly();
+        });
+        assertThat(writeBehindStore.getPending(id)).isNotNull();
+
+        cartService.deleteCart(id);
+        assertThat(writeBehindStore.getPending(id)).isNull();
+        assertThat(cartRepository.existsById(id)).isFalse();
+    }
+
+    @Test
+    void rolledBackBatchDeleteKeepsThePendingCarts() {
+        Long first = pendingCart();
+        Long second = pendingCart();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cartService.deleteCarts(List.of(first, second));
+            status.setRollbackOnly();
+        });
+        assertThat(writeBehindStore.getPending(first)).isNotNull();
+        assertThat(writeBehindStore.getPending(second)).isNotNull();
+
+        cartService.deleteCarts(List.of(first, second));
+        assertThat(writeBehindStore.getPending(first)).isNull();
+        assertThat(writeBehindStore.getPending(second)).isNull();
+    }
+
+    // A stored cart with an acknowledged change that is not flushed yet
+    private Long pendingCart() {
+        Cart cart = new Cart();
+        cart.setUserId(1L);
+        Long id = cartService.createCart(cart).getId();
+        writeBehindStore.mutate(id, pending -> pending.plusQuantity(10L, 2));
+        return id;
+    }
+}
@@ -0,0 +1,105 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.models.CartItem;
+import com.RealShopAPI.repositories.CartRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Listing carts costs the same few statements however many carts (and items) are on the page
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(CartService.class)
+class CartServiceQueryCountTest {
+
+    private static final int CARTS = 500;
+    private static final int ITEMS_PER_CART = 3;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private CartWriteBehindStore writeBehindStore;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Cart> carts = new ArrayList<>(CARTS);
+        for (int i = 0; i < CARTS; i++) {
+            Cart cart = new Cart();
+            cart.setUserId((long) i + 1);
+            for (long productId = 1; productId <= ITEMS_PER_CART; productId++) {
+                CartItem item = new CartItem(productId, 1);
+                item.setCart(cart);
+                cart.getCartItems().add(item);
+            }
+            carts.add(cart);
+        }
+        cartRepository.saveAll(carts);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingCartsUsesConstantNumberOfStatements() {
+        long smallPage = statementsFor(() -> cartService.getAllCarts("10", null, null, null), 10);
+        long fullPage = statementsFor(() -> cartService.getAllCarts(String.valueOf(CARTS), null, null, null), CARTS);
+
+        assertThat(fullPage).isEqualTo(smallPage);
+        // Page of carts, row count, items of all carts
+        assertThat(fullPage).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void cartPagesUseConstantNumberOfStatements() {
+        long smallPage = statementsFor(() -> cartService.getCartPage(10, null, null, null, null).getItems(), 10);
+        long fullPage = statementsFor(() -> cartService.getCartPage(CARTS, null, null, null, null).getItems(), CARTS);
+
+        assertThat(fullPage).isEqualTo(smallPage);
+        // Page of carts, items of all carts
+        assertThat(fullPage).isLessThanOrEqualTo(2);
+    }
+
+    private long statementsFor(CartListing listing, int expectedCarts) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<Cart> carts = listing.load();
+        assertThat(carts).hasSize(expectedCarts);
+        for (Cart cart : carts) {
+            assertThat(Hibernate.isInitialized(cart.getCartItems())).isTrue();
+            assertThat(cart.getCartItems()).hasSize(ITEMS_PER_CART);
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    @FunctionalInterface
+    private interface CartListing {
+        List<Cart> load();
+    }
+}
@@ -0,0 +1,113 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.models.CartItem;
+import com.RealShopAPI.repositories.CartRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Loading a cart that is not pending happens outside the shard lock, and is redone when it went stale
+class CartWriteBehindStoreTest {
+
+    @TempDir
+    Path logDirectory;
+
+    private final CartRepository cartRepository = mock(CartRepository.class);
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private CartWriteBehindStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // One shard, so every cart contends for the same lock; nothing is flushed during the test
+        store = new CartWriteBehindStore(cartRepository, null, null, new ObjectMapper().findAndRegisterModules(), null,
+                true, logDirectory, false, Duration.ofHours(1), 500, 1);
+        store.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        store.discard(1L);
+        store.discard(2L);
+        store.destroy();
+    }
+
+    @Test
+    void slowLoadDoesNotBlockOtherCartsOfTheShard() throws Exception {
+        when(cartRepository.findByIdWithItems(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(cart(1L, 1));
+        });
+        when(cartRepository.findByIdWithItems(2L)).thenReturn(Optional.of(cart(2L, 1)));
+
+        CompletableFuture<Cart> slow = CompletableFuture.supplyAsync(() -> store.mutate(1L, pending -> pending.plusQuantity(10L, 1)));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Cart other = CompletableFuture.supplyAsync(() -> store.mutate(2L, pending -> pending.plusQuantity(10L, 1)))
+                .get(5, TimeUnit.SECONDS);
+        assertThat(quantities(other)).containsEntry(10L, 2);
+
+        release.countDown();
+        assertThat(quantities(slow.get(5, TimeUnit.SECONDS))).containsEntry(10L, 2);
+    }
+
+    @Test
+    void loadIsRedoneWhenTheCartWasPersistedMeanwhile() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        when(cartRepository.findByIdWithItems(1L)).thenAnswer(invocation -> {
+            if (loads.incrementAndGet() == 1) {
+                loading.countDown();
+                release.await();
+                return Optional.of(cart(1L, 1));
+            }
+            return Optional.of(cart(1L, 5));
+        });
+
+        CompletableFuture<Cart> slow = CompletableFuture.supplyAsync(() -> store.mutate(1L, pending -> pending.plusQuantity(11L, 1)));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Another change to the cart is acknowledged and then leaves the pending map
+        store.mutate(1L, pending -> pending.withQuantity(10L, 5));
+        store.discard(1L);
+
+        release.countDown();
+        assertThat(quantities(slow.get(5, TimeUnit.SECONDS))).containsEntry(10L, 5).containsEntry(11L, 1);
+        verify(cartRepository, times(3)).findByIdWithItems(1L);
+    }
+
+    private static Cart cart(Long id, int quantity) {
+        Cart cart = new Cart();
+        cart.setId(id);
+        cart.setUserId(1L);
+        cart.setCreatedAt(LocalDateTime.now());
+        CartItem item = new CartItem(10L, quantity);
+        item.setCart(cart);
+        cart.getCartItems().add(item);
+        return cart;
+    }
+
+    private static Map<Long, Integer> quantities(Cart cart) {
+        return PendingCart.of(cart).items();
+    }
+}
@@ -0,0 +1,99 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.models.Cart;
+import com.RealShopAPI.models.CartItem;
+import com.RealShopAPI.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Concurrent first writes to a category, day or stock row all succeed inside their own transaction
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:derived-row-upsert;DB_CLOSE_DELAY=-1")
+class DerivedRowUpsertTest {
+
+    private static final int WRITERS = 16;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void firstProductsOfANewCategoryAreAllCounted() throws Exception {
+        runConcurrently(() -> productService.createProduct(product("fresh-category")));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT product_count FROM categories WHERE name = 'fresh-category'", Long.class)).isEqualTo(WRITERS);
+    }
+
+    @Test
+    void firstCartsOfTheDayAreAllCounted() throws Exception {
+        Long productId = productService.createProduct(product("books")).getId();
+
+        runConcurrently(() -> {
+            Cart cart = new Cart();
+            cart.setUserId(1L);
+            CartItem item = new CartItem(productId, 2);
+            item.setCart(cart);
+            cart.getCartItems().add(item);
+            return cartService.createCart(cart);
+        });
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(carts) FROM cart_daily_stats", Long.class)).isEqualTo(WRITERS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT quantity FROM product_daily_stats WHERE product_id = ?", Long.class, productId)).isEqualTo(2L * WRITERS);
+    }
+
+    @Test
+    void concurrentlyTrackedStockKeepsOneRow() throws Exception {
+        Long productId = productService.createProduct(product("books")).getId();
+
+        runConcurrently(() -> stockService.setAvailable(productId, 5L));
+
+        assertThat(stockService.getStock(productId).getAvailable()).isEqualTo(5L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product_stock WHERE product_id = ?", Long.class, productId)).isEqualTo(1L);
+    }
+
+    // Any failed write surfaces as an ExecutionException from Future.get
+    private static void runConcurrently(Callable<?> write) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writes = new ArrayList<>(WRITERS);
+        try (ExecutorService executor = Executors.newFixedThreadPool(WRITERS)) {
+            for (int i = 0; i < WRITERS; i++) {
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    return write.call();
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : writes) {
+                future.get();
+            }
+        }
+    }
+
+    private static Product product(String category) {
+        return new Product(null, "Product", 9.99, null, "default-image.png", category);
+    }
+}
@@ -0,0 +1,55 @@
+package com.RealShopAPI.services;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Migration V4 recomputes the category index and cart aggregates, also when they were partially filled
+class DerivedTableBackfillTest {
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:backfill-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).target("3").load().migrate();
+    }
+
+    @Test
+    void recomputesDerivedTablesFromTheirSources() {
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO products (id, title, price, category) VALUES (?, 'p', 1, ?)",
+                    i + 1, i < 3 ? "books" : "electronics");
+        }
+        // A partial index: one category present with a wrong count, one missing
+        jdbcTemplate.update("INSERT INTO categories (name, product_count) VALUES ('books', 1)");
+
+        jdbcTemplate.update("INSERT INTO carts (id, user_id, created_at) VALUES (1, 1, TIMESTAMP '2024-05-01 10:00:00')");
+        jdbcTemplate.update("INSERT INTO carts (id, user_id, created_at) VALUES (2, 1, TIMESTAMP '2024-05-01 18:00:00')");
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (1, 1, 2), (2, 1, 3), (2, 4, 1)");
+        jdbcTemplate.update("INSERT INTO cart_daily_stats (stats_date, carts) VALUES (DATE '2024-05-01', 7)");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        assertThat(count("SELECT product_count FROM categories WHERE name = 'books'")).isEqualTo(3);
+        assertThat(count("SELECT product_count FROM categories WHERE name = 'electronics'")).isEqualTo(2);
+        assertThat(count("SELECT carts FROM cart_daily_stats WHERE stats_date = DATE '2024-05-01'")).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM product_daily_stats WHERE stats_date = ? AND product_id = 1",
+                Long.class, LocalDate.of(2024, 5, 1))).isEqualTo(5);
+        assertThat(count("SELECT quantity FROM product_daily_stats WHERE product_id = 4")).isEqualTo(1);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.dto.ImportResultDTO;
+import com.RealShopAPI.models.Product;
+import com.RealShopAPI.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The JDBC import and Hibernate both take product ids from products_seq in blocks; they must never collide
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:product-id-sequence;DB_CLOSE_DELAY=-1")
+class ProductIdSequenceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void importedAndCreatedProductsGetDistinctIds() throws Exception {
+        Set<Long> ids = new HashSet<>();
+        for (int round = 0; round < 3; round++) {
+            ids.addAll(createProducts(70));
+            ImportResultDTO result = importProducts(120);
+            assertThat(result.getImported()).isEqualTo(120);
+            ids.add(productService.createProduct(product("single " + round)).getId());
+        }
+
+        long total = productRepository.count();
+        assertThat(total).isEqualTo(3 * (70 + 120 + 1));
+        assertThat(productRepository.findAll()).extracting(Product::getId).doesNotHaveDuplicates().containsAll(ids);
+    }
+
+    private List<Long> createProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(product("created " + i));
+        }
+        return productService.createProducts(products).stream().map(Product::getId).toList();
+    }
+
+    private ImportResultDTO importProducts(int count) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append("{\"title\":\"imported ").append(i).append("\",\"price\":9.99,\"category\":\"books\"}\n");
+        }
+        return productImportService.importProducts(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.NDJSON);
+    }
+
+    private static Product product(String title) {
+        return new Product(null, title, 9.99, null, "default-image.png", "books");
+    }
+}
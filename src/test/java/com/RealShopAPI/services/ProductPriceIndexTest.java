@@ -0,0 +1,149 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.dto.ProductDTO;
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.models.Product;
+import com.RealShopAPI.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Price ranges in price and id order, read through single-product writes that are not yet compacted
+class ProductPriceIndexTest {
+
+    private static final String[] CATEGORIES = {"books", "electronics", "jewelery"};
+    private static final List<Product> SEED = List.of(
+            product(1L, 30.0, "books"),
+            product(2L, 10.0, "books"),
+            product(3L, 20.0, "electronics"),
+            product(4L, 10.0, "books"),
+            product(5L, 50.0, "electronics"));
+
+    private ProductPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.streamAllProjected()).thenReturn(Stream.empty());
+        index = new ProductPriceIndex(productRepository, new ProductMapper(), mock(PlatformTransactionManager.class));
+        index.build();
+
+        index.onProductsChanged(new ProductsChangedEvent(SEED.stream().map(ProductChange::created).toList()));
+    }
+
+    @Test
+    void priceOrderReadsTheRangeFromEitherEnd() {
+        assertThat(ids(index.find(null, 10.0, 30.0, "price", "asc", 10))).containsExactly(2L, 4L, 3L, 1L);
+        assertThat(ids(index.find(null, null, 30.0, "price", "desc", 2))).containsExactly(1L, 3L);
+        assertThat(ids(index.find("books", 10.0, null, "price", "asc", 10))).containsExactly(2L, 4L, 1L);
+        assertThat(index.find("toys", null, null, "price", "asc", 10)).isEmpty();
+        assertThat(index.find(null, null, null, "title", "asc", 10)).isNull();
+    }
+
+    @Test
+    void idOrderKeepsTheFirstIdsOfTheRange() {
+        assertThat(ids(index.find(null, 10.0, 30.0, "id", "asc", 3))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.find(null, 10.0, 30.0, "id", "desc", 3))).containsExactly(4L, 3L, 2L);
+        assertThat(ids(index.find("electronics", null, null, "id", "desc", 10))).containsExactly(5L, 3L);
+    }
+
+    @Test
+    void writesMoveAndDropKeys() {
+        index.onProductsChanged(new ProductsChangedEvent(List.of(
+                ProductChange.updated("books", product(2L, 60.0, "books")),
+                ProductChange.updated("electronics", product(3L, 20.0, "books")),
+                ProductChange.deleted(5L, "electronics")
+        )));
+
+        assertThat(ids(index.find(null, null, null, "price", "asc", 10))).containsExactly(4L, 3L, 1L, 2L);
+        assertThat(ids(index.find("books", 15.0, null, "id", "asc", 10))).containsExactly(1L, 2L, 3L);
+        assertThat(index.find("electronics", null, null, "price", "asc", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void randomWritesMatchAScanOfTheCatalog() {
+        Random random = new Random(42);
+        Map<Long, Product> catalog = new HashMap<>();
+        SEED.forEach(product -> catalog.put(product.getId(), product));
+        List<ProductChange> initial = new ArrayList<>();
+        for (long id = 6; id <= 3_000; id++) {
+            Product product = product(id, 1 + random.nextInt(100), CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            catalog.put(id, product);
+            initial.add(ProductChange.created(product));
+        }
+        index.onProductsChanged(new ProductsChangedEvent(initial));
+
+        // Single writes pile up next to the base between compactions; every check reads through them
+        for (int i = 1; i <= 2_000; i++) {
+            long id = 1 + random.nextInt(3_100);
+            Product previous = catalog.get(id);
+            ProductChange change;
+            if (previous != null && random.nextInt(5) == 0) {
+                catalog.remove(id);
+                change = ProductChange.deleted(id, previous.getCategory());
+            } else {
+                Product product = product(id, 1 + random.nextInt(100), CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                catalog.put(id, product);
+                change = previous == null
+                        ? ProductChange.created(product)
+                        : ProductChange.updated(previous.getCategory(), product);
+            }
+            index.onProductsChanged(ProductsChangedEvent.of(change));
+            if (i % 37 == 0) {
+                assertMatchesScan(catalog);
+            }
+        }
+        assertThat(index.size()).isEqualTo(catalog.size());
+    }
+
+    private void assertMatchesScan(Map<Long, Product> catalog) {
+        for (String category : new String[]{null, "books"}) {
+            for (String sortBy : new String[]{"price", "id"}) {
+                for (String sort : new String[]{"asc", "desc"}) {
+                    assertThat(ids(index.find(category, 20.0, 70.0, sortBy, sort, 25)))
+                            .containsExactlyElementsOf(scan(catalog, category, 20.0, 70.0, sortBy, sort, 25));
+                    assertThat(ids(index.find(category, 99.0, null, sortBy, sort, 1_000)))
+                            .containsExactlyElementsOf(scan(catalog, category, 99.0, Double.MAX_VALUE, sortBy, sort, 1_000));
+                }
+            }
+        }
+    }
+
+    private static List<Long> scan(Map<Long, Product> catalog, String category, double min, double max,
+                                   String sortBy, String sort, int limit) {
+        Comparator<Product> order = "price".equals(sortBy)
+                ? Comparator.comparingDouble(Product::getPrice).thenComparingLong(Product::getId)
+                : Comparator.comparingLong(Product::getId);
+        return catalog.values().stream()
+                .filter(product -> category == null || category.equals(product.getCategory()))
+                .filter(product -> product.getPrice() >= min && product.getPrice() <= max)
+                .sorted("desc".equals(sort) ? order.reversed() : order)
+                .limit(limit)
+                .map(Product::getId)
+                .toList();
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        List<Long> ids = new ArrayList<>(products.size());
+        products.forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+
+    private static Product product(Long id, double price, String category) {
+        return new Product(id, "Product " + id, price, null, "default-image.png", category);
+    }
+}
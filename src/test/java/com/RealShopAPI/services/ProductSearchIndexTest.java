@@ -0,0 +1,83 @@
+package com.RealShopAPI.services;
+
+import com.RealShopAPI.events.ProductChange;
+import com.RealShopAPI.events.ProductsChangedEvent;
+import com.RealShopAPI.models.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Ranking, prefix matching and batched writes of the posting arrays
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null);
+        index.onProductsChanged(new ProductsChangedEvent(List.of(
+                ProductChange.created(product(1L, "Red cotton shirt", "men's clothing", "A plain shirt")),
+                ProductChange.created(product(2L, "Blue denim jacket", "men's clothing", "Red stitching")),
+                ProductChange.created(product(3L, "Red dress", "women's clothing", "Cotton summer dress")),
+                ProductChange.created(product(4L, "Gold ring", "jewelery", "Red stone"))
+        )));
+    }
+
+    @Test
+    void ranksTitleAboveCategoryAboveDescription() {
+        assertThat(index.search("red", 10)).containsExactly(1L, 3L, 2L, 4L);
+        assertThat(index.search("red", 2)).containsExactly(1L, 3L);
+        assertThat(index.search("clothing", 10)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void everyTokenMustMatchExactlyOrAsPrefix() {
+        assertThat(index.search("red cotton", 10)).containsExactly(1L, 3L);
+        assertThat(index.search("cot re", 10)).containsExactly(1L, 3L);
+        assertThat(index.search("red denim", 10)).containsExactly(2L);
+        assertThat(index.search("red silver", 10)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void exactTermsRankAbovePrefixMatches() {
+        index.onProductsChanged(ProductsChangedEvent.of(ProductChange.created(product(5L, "Redwood box", "home", null))));
+
+        assertThat(index.search("red", 10)).startsWith(1L, 3L).contains(5L);
+        assertThat(index.search("redwood", 10)).containsExactly(5L);
+    }
+
+    @Test
+    void updatesAndDeletesReplaceOldTerms() {
+        index.onProductsChanged(new ProductsChangedEvent(List.of(
+                ProductChange.updated("men's clothing", product(1L, "Green linen shirt", "men's clothing", null)),
+                ProductChange.deleted(3L, "women's clothing")
+        )));
+
+        assertThat(index.search("red", 10)).containsExactly(2L, 4L);
+        assertThat(index.search("green", 10)).containsExactly(1L);
+        assertThat(index.search("dress", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void largeBatchesKeepPostingsSorted() {
+        List<ProductChange> changes = new ArrayList<>();
+        for (long id = 1_000; id > 100; id--) {
+            changes.add(ProductChange.created(product(id, "Widget " + id, "tools", id % 2 == 0 ? "even" : "odd")));
+        }
+        index.onProductsChanged(new ProductsChangedEvent(changes));
+
+        List<Long> even = index.search("widget even", 1_000);
+        assertThat(even).hasSize(450).isSorted();
+        assertThat(even).allMatch(id -> id % 2 == 0);
+    }
+
+    private static Product product(Long id, String title, String category, String description) {
+        return new Product(id, title, 9.99, description, "default-image.png", category);
+    }
+}